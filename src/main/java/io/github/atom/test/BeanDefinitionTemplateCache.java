@@ -0,0 +1,359 @@
+package io.github.atom.test;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.ConfigurationClassPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.util.MultiValueMap;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * bean定义模板缓存，配置类首次解析后缓存解析出的bean定义，后续上下文直接注册克隆的定义，
+ * 定义上已带有配置类标记，ConfigurationClassPostProcessor不会再次解析
+ * 解析时由@PropertySource添加的属性源及导入信息一并缓存，应用模板时按原位置添加属性源并复制导入信息
+ * 模板中已包含首次解析时的条件结果，全局属性重新装载时清空
+ *
+ * @author Zhang Kangkang
+ * @version 1.0
+ */
+final class BeanDefinitionTemplateCache {
+
+    /**
+     * ConfigurationClassPostProcessor导入信息bean名称，ImportAware依赖
+     */
+    private static final String IMPORT_REGISTRY_BEAN_NAME = ConfigurationClassPostProcessor.class.getName()
+        + ".importRegistry";
+
+    /**
+     * bean定义模板（注册的配置类为key）
+     */
+    private static final Map<String, Template> TEMPLATE_CACHE = new ConcurrentHashMap<>(64);
+
+    /**
+     * 模板版本，清空时递增，清空前开始解析的上下文不再写入模板
+     */
+    private static final AtomicLong REVISION = new AtomicLong();
+
+    /**
+     * 构造器
+     */
+    private BeanDefinitionTemplateCache() {
+
+        throw new UnsupportedOperationException("cache cannot be instantiated");
+    }
+
+    /**
+     * 清空模板，全局属性重新装载后条件结果可能变化
+     */
+    static void clear() {
+
+        synchronized (REVISION) {
+            REVISION.incrementAndGet();
+            TEMPLATE_CACHE.clear();
+        }
+    }
+
+    /**
+     * 存在模板时将克隆的bean定义注册到上下文
+     *
+     * @param configurationClasses 注册的配置类
+     * @param context              上下文
+     * @return 是否存在模板
+     */
+    static boolean apply(Collection<Class<?>> configurationClasses, AnnotationConfigApplicationContext context) {
+
+        Template template = TEMPLATE_CACHE.get(getKey(configurationClasses));
+        if (Objects.isNull(template)) {
+            return false;
+        }
+        Object importRegistry = null;
+        if (Objects.nonNull(template.importRegistry)) {
+            importRegistry = copyImportRegistry(template.importRegistry);
+            if (Objects.isNull(importRegistry)) {
+                return false;
+            }
+        }
+        addPropertySources(template.propertySourceList, context.getEnvironment());
+        ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+        for (Map.Entry<String, AbstractBeanDefinition> definitionEntry : template.definitions.entrySet()) {
+            if (context.containsBeanDefinition(definitionEntry.getKey())) {
+                continue;
+            }
+            context.registerBeanDefinition(definitionEntry.getKey(), definitionEntry.getValue().cloneBeanDefinition());
+            for (String alias : template.aliases.getOrDefault(definitionEntry.getKey(), new String[0])) {
+                if (!context.isAlias(alias) && !context.containsBeanDefinition(alias)) {
+                    context.registerAlias(definitionEntry.getKey(), alias);
+                }
+            }
+        }
+        if (Objects.nonNull(importRegistry) && !beanFactory.containsSingleton(IMPORT_REGISTRY_BEAN_NAME)) {
+            beanFactory.registerSingleton(IMPORT_REGISTRY_BEAN_NAME, importRegistry);
+        }
+        return true;
+    }
+
+    /**
+     * 创建模板采集处理器，需在其他修改bean定义的处理器之前添加，且在上下文刷新前创建
+     *
+     * @param configurationClasses 注册的配置类
+     * @param context              上下文
+     * @return 模板采集处理器
+     */
+    static BeanFactoryPostProcessor capture(Collection<Class<?>> configurationClasses,
+                                            AnnotationConfigApplicationContext context) {
+
+        return new TemplateCaptureProcessor(getKey(configurationClasses), context.getEnvironment());
+    }
+
+    /**
+     * 按记录的相对位置添加属性源，已存在的同名属性源保持不变
+     *
+     * @param propertySourceList 解析时添加的属性源
+     * @param environment        环境
+     */
+    private static void addPropertySources(List<AddedPropertySource> propertySourceList,
+                                           ConfigurableEnvironment environment) {
+
+        MutablePropertySources propertySources = environment.getPropertySources();
+        for (AddedPropertySource addedPropertySource : propertySourceList) {
+            PropertySource<?> propertySource = addedPropertySource.propertySource;
+            if (propertySources.contains(propertySource.getName())) {
+                continue;
+            }
+            if (Objects.nonNull(addedPropertySource.nextName) && propertySources.contains(addedPropertySource.nextName)) {
+                propertySources.addBefore(addedPropertySource.nextName, propertySource);
+            } else {
+                propertySources.addLast(propertySource);
+            }
+        }
+    }
+
+    /**
+     * 复制导入信息，ImportAware处理时会移除其中的记录，不能在上下文之间共享
+     *
+     * @param importRegistry 导入信息
+     * @return 导入信息副本，无法复制时返回null
+     */
+    @SuppressWarnings("unchecked")
+    private static Object copyImportRegistry(Object importRegistry) {
+
+        try {
+            Class<?> importRegistryClass = importRegistry.getClass();
+            Constructor<?> constructor = importRegistryClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            Object copy = constructor.newInstance();
+            Field importsField = importRegistryClass.getDeclaredField("imports");
+            importsField.setAccessible(true);
+            MultiValueMap<String, Object> sourceImports = (MultiValueMap<String, Object>)importsField.get(importRegistry);
+            MultiValueMap<String, Object> copyImports = (MultiValueMap<String, Object>)importsField.get(copy);
+            for (Map.Entry<String, List<Object>> importEntry : sourceImports.entrySet()) {
+                copyImports.put(importEntry.getKey(), new ArrayList<>(importEntry.getValue()));
+            }
+            return copy;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取模板key
+     *
+     * @param configurationClasses 注册的配置类
+     * @return 模板key
+     */
+    private static String getKey(Collection<Class<?>> configurationClasses) {
+
+        StringJoiner key = new StringJoiner(",");
+        for (Class<?> configurationClass : configurationClasses) {
+            key.add(configurationClass.getName());
+        }
+        return key.toString();
+    }
+
+    /**
+     * bean定义模板
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    private static class Template {
+
+        /**
+         * bean定义
+         */
+        private final Map<String, AbstractBeanDefinition> definitions = new LinkedHashMap<>();
+
+        /**
+         * bean别名
+         */
+        private final Map<String, String[]> aliases = new LinkedHashMap<>();
+
+        /**
+         * 导入信息
+         */
+        private Object importRegistry;
+
+        /**
+         * 解析时添加的属性源，按添加顺序排列
+         */
+        private final List<AddedPropertySource> propertySourceList = new ArrayList<>();
+
+    }
+
+    /**
+     * 解析时添加的属性源
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    private static class AddedPropertySource {
+
+        /**
+         * 属性源
+         */
+        private final PropertySource<?> propertySource;
+
+        /**
+         * 其后的属性源名称，位于末尾时为null
+         */
+        private final String nextName;
+
+        /**
+         * 构造器
+         *
+         * @param propertySource 属性源
+         * @param nextName       其后的属性源名称
+         */
+        AddedPropertySource(PropertySource<?> propertySource, String nextName) {
+
+            this.propertySource = propertySource;
+            this.nextName = nextName;
+        }
+
+    }
+
+    /**
+     * 模板采集处理器，在配置类解析完成后、其他处理器修改定义前克隆bean定义
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    private static class TemplateCaptureProcessor implements BeanFactoryPostProcessor {
+
+        /**
+         * 模板key
+         */
+        private final String key;
+
+        /**
+         * 上下文环境
+         */
+        private final ConfigurableEnvironment environment;
+
+        /**
+         * 解析前已存在的属性源名称
+         */
+        private final Set<String> initialPropertySourceNameSet;
+
+        /**
+         * 创建时的模板版本
+         */
+        private final long revision;
+
+        /**
+         * 构造器
+         *
+         * @param key         模板key
+         * @param environment 上下文环境
+         */
+        TemplateCaptureProcessor(String key, ConfigurableEnvironment environment) {
+
+            this.key = key;
+            this.environment = environment;
+            this.initialPropertySourceNameSet = getPropertySourceNames(environment);
+            this.revision = REVISION.get();
+        }
+
+        /**
+         * 获取属性源名称
+         *
+         * @param environment 环境
+         * @return 属性源名称
+         */
+        private static Set<String> getPropertySourceNames(ConfigurableEnvironment environment) {
+
+            return StreamSupport.stream(environment.getPropertySources().spliterator(), false)
+                .map(PropertySource::getName)
+                .collect(Collectors.toSet());
+        }
+
+        /**
+         * 装载上下文
+         *
+         * @param beanFactory the bean factory used by the application context
+         * @throws BeansException 失败时抛出
+         */
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+
+            if (TEMPLATE_CACHE.containsKey(key)) {
+                return;
+            }
+            Template template = new Template();
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+                if (!(beanDefinition instanceof AbstractBeanDefinition)) {
+                    // 无法克隆的定义，不缓存模板
+                    return;
+                }
+                template.definitions.put(beanName, ((AbstractBeanDefinition)beanDefinition).cloneBeanDefinition());
+                String[] aliases = beanFactory.getAliases(beanName);
+                if (aliases.length > 0) {
+                    template.aliases.put(beanName, aliases);
+                }
+            }
+            if (beanFactory.containsSingleton(IMPORT_REGISTRY_BEAN_NAME)) {
+                template.importRegistry = copyImportRegistry(beanFactory.getSingleton(IMPORT_REGISTRY_BEAN_NAME));
+                if (Objects.isNull(template.importRegistry)) {
+                    return;
+                }
+            }
+            List<PropertySource<?>> propertySources = new ArrayList<>();
+            environment.getPropertySources().forEach(propertySources::add);
+            for (int i = 0; i < propertySources.size(); i++) {
+                if (initialPropertySourceNameSet.contains(propertySources.get(i).getName())) {
+                    continue;
+                }
+                String nextName = i + 1 < propertySources.size() ? propertySources.get(i + 1).getName() : null;
+                template.propertySourceList.add(new AddedPropertySource(propertySources.get(i), nextName));
+            }
+            synchronized (REVISION) {
+                if (revision == REVISION.get()) {
+                    TEMPLATE_CACHE.putIfAbsent(key, template);
+                }
+            }
+        }
+
+    }
+
+}
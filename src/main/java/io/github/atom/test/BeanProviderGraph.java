@@ -0,0 +1,615 @@
+package io.github.atom.test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import io.github.atom.test.utils.TestClassUtil;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.Resource;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * bean提供者依赖图，根据@Bean方法的参数及返回类型计算bean传递依赖的@Bean方法
+ *
+ * @author Zhang Kangkang
+ * @version 1.0
+ */
+final class BeanProviderGraph {
+
+    /**
+     * bean提供者（beanName为key）
+     */
+    private static final Map<String, List<BeanProvider>> NAME_PROVIDER_MAP = new ConcurrentHashMap<>(256);
+
+    /**
+     * 所有bean提供者
+     */
+    private static final List<BeanProvider> PROVIDER_LIST = new CopyOnWriteArrayList<>();
+
+    /**
+     * 已添加的bean提供者标识
+     */
+    private static final Set<String> PROVIDER_KEY_SET = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 类型匹配的bean提供者缓存（依赖类型为key）
+     */
+    private static final Map<Class<?>, List<BeanProvider>> TYPE_PROVIDER_CACHE = new ConcurrentHashMap<>(256);
+
+    /**
+     * 提供者所在的配置类
+     */
+    private static final Set<String> PROVIDER_CONFIGURATION_CLASS_NAME_SET = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 构造器
+     */
+    private BeanProviderGraph() {
+
+        throw new UnsupportedOperationException("graph cannot be instantiated");
+    }
+
+    /**
+     * 添加bean提供者
+     *
+     * @param configurationClass     配置类
+     * @param rootConfigurationChain 注册配置类时需要一并注册的根配置链，为空时只注册配置类本身
+     * @param beanMethod             标注@Bean的方法
+     * @param beanNames              bean名称
+     */
+    static void addProvider(Class<?> configurationClass,
+                            Class<?>[] rootConfigurationChain,
+                            Method beanMethod,
+                            String[] beanNames) {
+
+        List<Class<?>> registerClassList = TestClassUtil.isArrayNotEmpty(rootConfigurationChain)
+            ? Arrays.asList(rootConfigurationChain)
+            : Collections.singletonList(configurationClass);
+        BeanProvider provider = new BeanProvider(configurationClass, registerClassList, beanMethod);
+        if (!PROVIDER_KEY_SET.add(provider.getKey())) {
+            return;
+        }
+        PROVIDER_LIST.add(provider);
+        PROVIDER_CONFIGURATION_CLASS_NAME_SET.add(configurationClass.getName());
+        for (String beanName : beanNames) {
+            NAME_PROVIDER_MAP.computeIfAbsent(beanName, key -> new CopyOnWriteArrayList<>()).add(provider);
+        }
+        TYPE_PROVIDER_CACHE.clear();
+    }
+
+    /**
+     * 计算bean传递依赖的@Bean方法
+     *
+     * @param name        beanName
+     * @param targetClass beanClass
+     * @return 依赖选择结果，bean不由@Bean方法提供时返回null
+     */
+    static Selection select(String name, Class<?> targetClass) {
+
+        List<BeanProvider> rootProviders = getMatchedProviders(name, targetClass);
+        if (rootProviders.isEmpty()) {
+            return null;
+        }
+        Selection selection = new Selection();
+        for (BeanProvider rootProvider : rootProviders) {
+            visit(rootProvider, selection);
+        }
+        // 已注册配置类中的后置处理器及基础设施bean不参与依赖计算，但需保留，遍历至不再新增配置类
+        int configurationClassCount;
+        do {
+            configurationClassCount = selection.configurationClassList.size();
+            for (BeanProvider provider : PROVIDER_LIST) {
+                if (selection.configurationClassList.contains(provider.getConfigurationClass())
+                    && isInfrastructureMethod(provider.getBeanMethod())
+                    && ConditionOutcomeCache.matches(provider.getBeanMethod())) {
+                    visit(provider, selection);
+                }
+            }
+        } while (configurationClassCount != selection.configurationClassList.size());
+        return selection;
+    }
+
+    /**
+     * 是否后置处理器或基础设施bean的@Bean方法
+     *
+     * @param beanMethod 标注@Bean的方法
+     * @return 是否后置处理器或基础设施bean
+     */
+    private static boolean isInfrastructureMethod(Method beanMethod) {
+
+        Class<?> returnType = beanMethod.getReturnType();
+        if (BeanPostProcessor.class.isAssignableFrom(returnType)
+            || BeanFactoryPostProcessor.class.isAssignableFrom(returnType)) {
+            return true;
+        }
+        Role role = beanMethod.getAnnotation(Role.class);
+        return Objects.nonNull(role) && role.value() == BeanDefinition.ROLE_INFRASTRUCTURE;
+    }
+
+    /**
+     * 深度优先遍历，依赖的配置类排在前面
+     *
+     * @param provider  bean提供者
+     * @param selection 依赖选择结果
+     */
+    private static void visit(BeanProvider provider, Selection selection) {
+
+        if (!selection.methodKeySet.add(provider.getKey())) {
+            return;
+        }
+        visitParameters(provider.getBeanMethod().getParameters(), selection);
+        for (Class<?> registerClass : provider.getRegisterClassList()) {
+            visitConfigurationClass(registerClass, selection);
+        }
+        for (Class<?> registerClass : provider.getRegisterClassList()) {
+            if (!selection.configurationClassList.contains(registerClass)
+                && ConditionOutcomeCache.matches(registerClass)) {
+                selection.configurationClassList.add(registerClass);
+            }
+        }
+    }
+
+    /**
+     * 遍历配置类构造器、@Autowired字段及方法依赖的bean，配置类实例化时同样需要这些依赖
+     *
+     * @param configurationClass 配置类
+     * @param selection          依赖选择结果
+     */
+    private static void visitConfigurationClass(Class<?> configurationClass, Selection selection) {
+
+        if (!selection.visitedClassSet.add(configurationClass)) {
+            return;
+        }
+        try {
+            for (Constructor<?> constructor : configurationClass.getDeclaredConstructors()) {
+                visitParameters(constructor.getParameters(), selection);
+            }
+            for (Class<?> clazz = configurationClass;
+                 Objects.nonNull(clazz) && !Object.class.equals(clazz);
+                 clazz = clazz.getSuperclass()) {
+                for (Field field : clazz.getDeclaredFields()) {
+                    if (field.isAnnotationPresent(Autowired.class) || field.isAnnotationPresent(Resource.class)) {
+                        visitDependency(getQualifierName(field), ResolvableType.forField(field), selection);
+                    }
+                }
+                for (Method method : clazz.getDeclaredMethods()) {
+                    if (method.isAnnotationPresent(Autowired.class)) {
+                        visitParameters(method.getParameters(), selection);
+                    }
+                }
+            }
+        } catch (Throwable ignore) {
+            // 依赖类不存在时无法解析注入点，交由上下文刷新判定
+        }
+    }
+
+    /**
+     * 遍历参数依赖的bean
+     *
+     * @param parameters 参数
+     * @param selection  依赖选择结果
+     */
+    private static void visitParameters(Parameter[] parameters, Selection selection) {
+
+        for (Parameter parameter : parameters) {
+            visitDependency(getQualifierName(parameter),
+                ResolvableType.forType(parameter.getParameterizedType()),
+                selection
+            );
+        }
+    }
+
+    /**
+     * 遍历依赖的bean
+     *
+     * @param dependencyName 依赖名称，未指定时为null
+     * @param dependencyType 依赖类型
+     * @param selection      依赖选择结果
+     */
+    private static void visitDependency(String dependencyName, ResolvableType dependencyType, Selection selection) {
+
+        Class<?> dependencyClass = getDependencyClass(dependencyType);
+        if (Objects.isNull(dependencyClass) || TestClassUtil.isPrimitiveOrWrapper(dependencyClass)) {
+            return;
+        }
+        for (BeanProvider dependencyProvider : getMatchedProviders(dependencyName, dependencyClass)) {
+            visit(dependencyProvider, selection);
+        }
+    }
+
+    /**
+     * 获取注入点指定的bean名称
+     *
+     * @param element 参数或字段
+     * @return bean名称，未指定时为null
+     */
+    private static String getQualifierName(AnnotatedElement element) {
+
+        Qualifier qualifier = element.getAnnotation(Qualifier.class);
+        if (Objects.nonNull(qualifier) && StringUtils.hasText(qualifier.value())) {
+            return qualifier.value();
+        }
+        Resource resource = element.getAnnotation(Resource.class);
+        return Objects.nonNull(resource) && StringUtils.hasText(resource.name()) ? resource.name() : null;
+    }
+
+    /**
+     * 获取bean提供者，优先按名称匹配
+     *
+     * @param name        beanName
+     * @param targetClass beanClass
+     * @return bean提供者
+     */
+    private static List<BeanProvider> getProviders(String name, Class<?> targetClass) {
+
+        if (StringUtils.hasText(name)) {
+            List<BeanProvider> nameProviders = NAME_PROVIDER_MAP.getOrDefault(name, Collections.emptyList());
+            if (!nameProviders.isEmpty()) {
+                return nameProviders;
+            }
+        }
+        return TYPE_PROVIDER_CACHE.computeIfAbsent(targetClass, key -> {
+            List<BeanProvider> typeProviders = Lists.newArrayList();
+            for (BeanProvider provider : PROVIDER_LIST) {
+                if (ClassUtils.isAssignable(key, provider.getBeanMethod().getReturnType())) {
+                    typeProviders.add(provider);
+                }
+            }
+            return typeProviders;
+        });
+    }
+
+    /**
+     * 获取条件匹配的bean提供者
+     *
+     * @param name        beanName
+     * @param targetClass beanClass
+     * @return 条件匹配的bean提供者
+     */
+    private static List<BeanProvider> getMatchedProviders(String name, Class<?> targetClass) {
+
+        List<BeanProvider> matchedProviders = Lists.newArrayList();
+        for (BeanProvider provider : getProviders(name, targetClass)) {
+            if (ConditionOutcomeCache.matches(provider.getConfigurationClass())
+                && ConditionOutcomeCache.matches(provider.getBeanMethod())) {
+                matchedProviders.add(provider);
+            }
+        }
+        return matchedProviders;
+    }
+
+    /**
+     * 指定包内是否存在bean提供者
+     *
+     * @param name          beanName，为空时按类型匹配
+     * @param targetClass   beanClass
+     * @param packagePrefix 包路径
+     * @return 是否存在bean提供者
+     */
+    static boolean hasProvider(String name, Class<?> targetClass, String packagePrefix) {
+
+        return hasProvider(name, targetClass, packagePrefix, false);
+    }
+
+    /**
+     * 指定包内是否存在条件匹配的bean提供者，提供者自身的条件及所在配置类的条件均需匹配
+     *
+     * @param name          beanName，为空时按类型匹配
+     * @param targetClass   beanClass
+     * @param packagePrefix 包路径
+     * @return 是否存在条件匹配的bean提供者
+     */
+    static boolean hasMatchedProvider(String name, Class<?> targetClass, String packagePrefix) {
+
+        return hasProvider(name, targetClass, packagePrefix, true);
+    }
+
+    /**
+     * 指定包内是否存在bean提供者
+     *
+     * @param name          beanName，为空时按类型匹配
+     * @param targetClass   beanClass
+     * @param packagePrefix 包路径
+     * @param matchedOnly   是否只统计条件匹配的提供者
+     * @return 是否存在bean提供者
+     */
+    private static boolean hasProvider(String name, Class<?> targetClass, String packagePrefix, boolean matchedOnly) {
+
+        List<BeanProvider> providers = StringUtils.hasText(name)
+            ? NAME_PROVIDER_MAP.getOrDefault(name, Collections.emptyList())
+            : getProviders(null, targetClass);
+        for (BeanProvider provider : providers) {
+            if (!provider.getConfigurationClass().getName().startsWith(packagePrefix)) {
+                continue;
+            }
+            if (!matchedOnly
+                || (ConditionOutcomeCache.matches(provider.getBeanMethod())
+                && ConditionOutcomeCache.matches(provider.getConfigurationClass()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取指定名称bean的声明类型
+     *
+     * @param name beanName
+     * @return bean声明类型，不由@Bean方法提供时返回null
+     */
+    static Class<?> getProvidedClass(String name) {
+
+        List<BeanProvider> providers = NAME_PROVIDER_MAP.getOrDefault(name, Collections.emptyList());
+        return providers.isEmpty() ? null : providers.get(0).getBeanMethod().getReturnType();
+    }
+
+    /**
+     * 获取依赖的bean类型，ObjectProvider、Optional、集合及数组逐层取元素类型
+     *
+     * @param type 依赖类型
+     * @return bean类型
+     */
+    private static Class<?> getDependencyClass(ResolvableType type) {
+
+        Class<?> rawClass = type.resolve();
+        if (Objects.isNull(rawClass)) {
+            return null;
+        }
+        if (rawClass.isArray()) {
+            return getDependencyClass(type.getComponentType());
+        }
+        if (ObjectProvider.class.isAssignableFrom(rawClass)
+            || Optional.class.equals(rawClass)
+            || Collection.class.isAssignableFrom(rawClass)) {
+            return getDependencyClass(type.getGeneric(0));
+        }
+        if (Map.class.isAssignableFrom(rawClass)) {
+            return getDependencyClass(type.getGeneric(1));
+        }
+        return rawClass;
+    }
+
+    /**
+     * 依赖选择结果
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    static class Selection {
+
+        /**
+         * 需要注册的配置类，依赖在前
+         */
+        private final List<Class<?>> configurationClassList = Lists.newArrayList();
+
+        /**
+         * 需要保留的@Bean方法（配置类#方法名）
+         */
+        private final Set<String> methodKeySet = Sets.newHashSet();
+
+        /**
+         * 已遍历注入点的配置类
+         */
+        private final Set<Class<?>> visitedClassSet = Sets.newHashSet();
+
+        /**
+         * 获取需要注册的配置类
+         *
+         * @return 需要注册的配置类
+         */
+        List<Class<?>> getConfigurationClassList() {
+
+            return configurationClassList;
+        }
+
+        /**
+         * 创建bean方法定义过滤处理器
+         *
+         * @return bean方法定义过滤处理器
+         */
+        BeanFactoryPostProcessor createFilterProcessor() {
+
+            return new BeanMethodFilterProcessor(methodKeySet);
+        }
+
+    }
+
+    /**
+     * bean提供者
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    static class BeanProvider {
+
+        /**
+         * 配置类
+         */
+        private final Class<?> configurationClass;
+
+        /**
+         * 需要注册的配置类，与完整装载时注册的根配置链一致
+         */
+        private final List<Class<?>> registerClassList;
+
+        /**
+         * 标注@Bean的方法
+         */
+        private final Method beanMethod;
+
+        /**
+         * 唯一标识（配置类#方法名）
+         */
+        private final String key;
+
+        /**
+         * 构造器
+         *
+         * @param configurationClass 配置类
+         * @param registerClassList  需要注册的配置类
+         * @param beanMethod         标注@Bean的方法
+         */
+        BeanProvider(Class<?> configurationClass, List<Class<?>> registerClassList, Method beanMethod) {
+
+            this.configurationClass = configurationClass;
+            this.registerClassList = registerClassList;
+            this.beanMethod = beanMethod;
+            this.key = getMethodKey(configurationClass.getName(), beanMethod.getName());
+        }
+
+        /**
+         * 获取配置类
+         *
+         * @return 配置类
+         */
+        Class<?> getConfigurationClass() {
+
+            return configurationClass;
+        }
+
+        /**
+         * 获取需要注册的配置类
+         *
+         * @return 需要注册的配置类
+         */
+        List<Class<?>> getRegisterClassList() {
+
+            return registerClassList;
+        }
+
+        /**
+         * 获取标注@Bean的方法
+         *
+         * @return 标注@Bean的方法
+         */
+        Method getBeanMethod() {
+
+            return beanMethod;
+        }
+
+        /**
+         * 获取唯一标识
+         *
+         * @return 唯一标识
+         */
+        String getKey() {
+
+            return key;
+        }
+
+    }
+
+    /**
+     * 获取标注@Bean的方法标识
+     *
+     * @param configurationClassName 配置类名
+     * @param methodName             方法名
+     * @return 标注@Bean的方法标识
+     */
+    private static String getMethodKey(String configurationClassName, String methodName) {
+
+        return configurationClassName + "#" + methodName;
+    }
+
+    /**
+     * bean方法定义过滤处理器，移除依赖图中已知但未被请求bean传递依赖的@Bean定义
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    private static class BeanMethodFilterProcessor implements BeanFactoryPostProcessor {
+
+        /**
+         * 需要保留的@Bean方法
+         */
+        private final Set<String> methodKeySet;
+
+        /**
+         * 构造器
+         *
+         * @param methodKeySet 需要保留的@Bean方法
+         */
+        BeanMethodFilterProcessor(Set<String> methodKeySet) {
+
+            this.methodKeySet = methodKeySet;
+        }
+
+        /**
+         * 是否后置处理器或基础设施bean定义，此类定义始终保留
+         *
+         * @param beanDefinition bean定义
+         * @param factoryMethod  @Bean方法
+         * @param classLoader    类加载器
+         * @return 是否后置处理器或基础设施bean定义
+         */
+        private static boolean isInfrastructureDefinition(BeanDefinition beanDefinition,
+                                                          MethodMetadata factoryMethod,
+                                                          ClassLoader classLoader) {
+
+            if (beanDefinition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE) {
+                return true;
+            }
+            try {
+                Class<?> returnType = ClassUtils.forName(factoryMethod.getReturnTypeName(), classLoader);
+                return BeanPostProcessor.class.isAssignableFrom(returnType)
+                    || BeanFactoryPostProcessor.class.isAssignableFrom(returnType);
+            } catch (Throwable ignore) {
+                return false;
+            }
+        }
+
+        /**
+         * 装载上下文
+         *
+         * @param beanFactory the bean factory used by the application context
+         * @throws BeansException 失败时抛出
+         */
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+
+            if (!(beanFactory instanceof BeanDefinitionRegistry)) {
+                return;
+            }
+            BeanDefinitionRegistry registry = (BeanDefinitionRegistry)beanFactory;
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+                if (!(beanDefinition instanceof AnnotatedBeanDefinition)) {
+                    continue;
+                }
+                MethodMetadata factoryMethod = ((AnnotatedBeanDefinition)beanDefinition).getFactoryMethodMetadata();
+                if (Objects.isNull(factoryMethod)
+                    || !PROVIDER_CONFIGURATION_CLASS_NAME_SET.contains(factoryMethod.getDeclaringClassName())) {
+                    continue;
+                }
+                String methodKey = getMethodKey(factoryMethod.getDeclaringClassName(), factoryMethod.getMethodName());
+                if (!methodKeySet.contains(methodKey)
+                    && !isInfrastructureDefinition(beanDefinition, factoryMethod, beanFactory.getBeanClassLoader())) {
+                    registry.removeBeanDefinition(beanName);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,321 @@
+package io.github.atom.test;
+
+import io.github.atom.test.loader.NacosContextLoader;
+import io.github.atom.test.utils.TestClassUtil;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 条件注解结果缓存，class条件在扫描时计算，属性及profile条件在全局属性装载完成后计算，全局属性重新装载时清空，
+ * 缺失bean条件仅在项目内已声明对应bean且其条件匹配时判定为不匹配，其余无法静态判定的条件视为匹配，由上下文刷新时判定
+ *
+ * @author Zhang Kangkang
+ * @version 1.0
+ */
+final class ConditionOutcomeCache {
+
+    /**
+     * class条件结果（配置类或@Bean方法为key）
+     */
+    private static final Map<AnnotatedElement, Boolean> CLASS_OUTCOME_CACHE = new ConcurrentHashMap<>(256);
+
+    /**
+     * 全部条件结果（配置类或@Bean方法为key）
+     */
+    private static final Map<AnnotatedElement, Boolean> OUTCOME_CACHE = new ConcurrentHashMap<>(256);
+
+    /**
+     * 项目包路径
+     */
+    private static volatile String PROJECT_PACKAGE;
+
+    /**
+     * 全局属性
+     */
+    private static volatile Environment ENVIRONMENT;
+
+    /**
+     * 属性文件装载结果
+     */
+    private static volatile CompletableFuture<?> PROPERTIES_LOADED = CompletableFuture.completedFuture(null);
+
+    /**
+     * 构造器
+     */
+    private ConditionOutcomeCache() {
+
+        throw new UnsupportedOperationException("cache cannot be instantiated");
+    }
+
+    /**
+     * 设置条件计算所需的项目包路径及全局属性
+     *
+     * @param projectPackage   项目包路径
+     * @param environment      全局属性
+     * @param propertiesLoaded 属性文件装载结果，计算属性条件前等待
+     */
+    static void configure(String projectPackage, Environment environment, CompletableFuture<?> propertiesLoaded) {
+
+        PROJECT_PACKAGE = projectPackage;
+        ENVIRONMENT = environment;
+        PROPERTIES_LOADED = propertiesLoaded;
+        OUTCOME_CACHE.clear();
+    }
+
+    /**
+     * 清空依赖全局属性的条件结果，全局属性重新装载时调用
+     */
+    static void clear() {
+
+        OUTCOME_CACHE.clear();
+    }
+
+    /**
+     * 计算并缓存class条件结果
+     *
+     * @param element 配置类或@Bean方法
+     * @return class条件是否匹配
+     */
+    static boolean matchesClassConditions(AnnotatedElement element) {
+
+        return CLASS_OUTCOME_CACHE.computeIfAbsent(element, ConditionOutcomeCache::evaluateClassConditions);
+    }
+
+    /**
+     * 条件是否匹配，结果缓存
+     *
+     * @param element 配置类或@Bean方法
+     * @return 条件是否匹配
+     */
+    static boolean matches(AnnotatedElement element) {
+
+        Boolean outcome = OUTCOME_CACHE.get(element);
+        if (Objects.nonNull(outcome)) {
+            return outcome;
+        }
+        outcome = matchesClassConditions(element)
+            && matchesProfile(element)
+            && matchesMissingBean(element)
+            && matchesProperty(element);
+        OUTCOME_CACHE.putIfAbsent(element, outcome);
+        return outcome;
+    }
+
+    /**
+     * 计算class条件
+     *
+     * @param element 配置类或@Bean方法
+     * @return class条件是否匹配
+     */
+    private static boolean evaluateClassConditions(AnnotatedElement element) {
+
+        try {
+            AnnotationAttributes onClass = AnnotatedElementUtils.getMergedAnnotationAttributes(element,
+                ConditionalOnClass.class.getName(),
+                true,
+                false
+            );
+            if (Objects.nonNull(onClass)) {
+                for (String className : getStrings(onClass, "value", "name")) {
+                    if (Objects.isNull(TestClassUtil.tryGetClass(className))) {
+                        return false;
+                    }
+                }
+            }
+            AnnotationAttributes onMissingClass = AnnotatedElementUtils.getMergedAnnotationAttributes(element,
+                ConditionalOnMissingClass.class.getName(),
+                true,
+                false
+            );
+            if (Objects.nonNull(onMissingClass)) {
+                for (String className : getStrings(onMissingClass, "value")) {
+                    if (Objects.nonNull(TestClassUtil.tryGetClass(className))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } catch (Throwable ignore) {
+            return true;
+        }
+    }
+
+    /**
+     * 计算@ConditionalOnMissingBean，项目内已声明对应名称或类型的bean且其条件匹配时不匹配
+     *
+     * @param element 配置类或@Bean方法
+     * @return 是否匹配
+     */
+    private static boolean matchesMissingBean(AnnotatedElement element) {
+
+        String projectPackage = PROJECT_PACKAGE;
+        if (!StringUtils.hasText(projectPackage) || isProjectElement(element, projectPackage)) {
+            return true;
+        }
+        try {
+            AnnotationAttributes onMissingBean = AnnotatedElementUtils.getMergedAnnotationAttributes(element,
+                ConditionalOnMissingBean.class.getName(),
+                true,
+                false
+            );
+            if (Objects.isNull(onMissingBean)) {
+                return true;
+            }
+            String[] typeNames = getStrings(onMissingBean, "value", "type");
+            String[] beanNames = getStrings(onMissingBean, "name");
+            if (typeNames.length == 0 && beanNames.length == 0 && element instanceof Method) {
+                typeNames = new String[] {((Method)element).getReturnType().getName()};
+            }
+            for (String beanName : beanNames) {
+                if (BeanProviderGraph.hasMatchedProvider(beanName, null, projectPackage)) {
+                    return false;
+                }
+            }
+            for (String typeName : typeNames) {
+                Class<?> type = TestClassUtil.tryGetClass(typeName);
+                if (Objects.nonNull(type) && BeanProviderGraph.hasMatchedProvider(null, type, projectPackage)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (Throwable ignore) {
+            return true;
+        }
+    }
+
+    /**
+     * 计算@ConditionalOnProperty，存在该条件时等待属性文件及nacos配置装载完成
+     *
+     * @param element 配置类或@Bean方法
+     * @return 是否匹配
+     */
+    private static boolean matchesProperty(AnnotatedElement element) {
+
+        Environment environment = ENVIRONMENT;
+        if (Objects.isNull(environment)) {
+            return true;
+        }
+        AnnotationAttributes onProperty;
+        try {
+            onProperty = AnnotatedElementUtils.getMergedAnnotationAttributes(element,
+                ConditionalOnProperty.class.getName(),
+                true,
+                false
+            );
+        } catch (Throwable ignore) {
+            return true;
+        }
+        if (Objects.isNull(onProperty)) {
+            return true;
+        }
+        awaitProperties();
+        String prefix = onProperty.getString("prefix").trim();
+        if (StringUtils.hasText(prefix) && !prefix.endsWith(".")) {
+            prefix = prefix + ".";
+        }
+        String havingValue = onProperty.getString("havingValue");
+        boolean matchIfMissing = onProperty.getBoolean("matchIfMissing");
+        for (String name : getStrings(onProperty, "value", "name")) {
+            String key = prefix + name;
+            if (!environment.containsProperty(key)) {
+                if (!matchIfMissing) {
+                    return false;
+                }
+                continue;
+            }
+            String value = environment.getProperty(key);
+            boolean match = StringUtils.hasLength(havingValue)
+                ? havingValue.equalsIgnoreCase(value)
+                : !"false".equalsIgnoreCase(value);
+            if (!match) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 计算@Profile，存在该条件时等待全局属性装载完成
+     *
+     * @param element 配置类或@Bean方法
+     * @return 是否匹配
+     */
+    private static boolean matchesProfile(AnnotatedElement element) {
+
+        Environment environment = ENVIRONMENT;
+        if (Objects.isNull(environment)) {
+            return true;
+        }
+        AnnotationAttributes profile;
+        try {
+            profile = AnnotatedElementUtils.getMergedAnnotationAttributes(element, Profile.class.getName(), true, false);
+        } catch (Throwable ignore) {
+            return true;
+        }
+        if (Objects.isNull(profile)) {
+            return true;
+        }
+        awaitProperties();
+        return environment.acceptsProfiles(Profiles.of(profile.getStringArray("value")));
+    }
+
+    /**
+     * 等待属性文件及nacos配置装载完成
+     */
+    private static void awaitProperties() {
+
+        try {
+            PROPERTIES_LOADED.join();
+        } catch (Exception ignore) {
+            // 装载失败已记录日志，按当前属性计算
+        }
+        NacosContextLoader.await();
+    }
+
+    /**
+     * 是否项目内的配置类或@Bean方法
+     *
+     * @param element        配置类或@Bean方法
+     * @param projectPackage 项目包路径
+     * @return 是否项目内
+     */
+    private static boolean isProjectElement(AnnotatedElement element, String projectPackage) {
+
+        Class<?> clazz = element instanceof Method ? ((Method)element).getDeclaringClass() : (Class<?>)element;
+        return clazz.getName().startsWith(projectPackage);
+    }
+
+    /**
+     * 合并字符串数组属性
+     *
+     * @param attributes 注解属性
+     * @param names      属性名
+     * @return 字符串数组
+     */
+    private static String[] getStrings(AnnotationAttributes attributes, String... names) {
+
+        String[] values = new String[0];
+        for (String name : names) {
+            if (attributes.containsKey(name)) {
+                values = StringUtils.concatenateStringArrays(values, attributes.getStringArray(name));
+            }
+        }
+        return values;
+    }
+
+}
@@ -0,0 +1,163 @@
+package io.github.atom.test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按需创建的上下文淘汰跟踪，按最近访问顺序记录上下文，超过数量上限或空闲超时的上下文将在测试用例边界被淘汰
+ * 只跟踪注册完整配置或精简配置创建的上下文，加载器共享的上下文及bean被直接持有的上下文不会被淘汰
+ *
+ * @author Zhang Kangkang
+ * @version 1.0
+ */
+final class ContextEvictionTracker {
+
+    /**
+     * 上下文最近访问时间，按访问顺序排列
+     */
+    private static final Map<AnnotationConfigApplicationContext, Long> ACCESS_TIME_MAP =
+        new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 上下文最近访问的测试用例批次
+     */
+    private static final Map<AnnotationConfigApplicationContext, Long> ACCESS_GENERATION_MAP = Maps.newIdentityHashMap();
+
+    /**
+     * 不可淘汰的上下文
+     */
+    private static final Set<AnnotationConfigApplicationContext> PINNED_CONTEXT_SET = Sets.newIdentityHashSet();
+
+    /**
+     * 当前测试用例批次，每次淘汰时递增
+     */
+    private static long GENERATION = 0;
+
+    /**
+     * 上下文数量上限，不大于0时不限制
+     */
+    private static volatile int MAX_CONTEXTS = 0;
+
+    /**
+     * 上下文最大空闲时间（毫秒），不大于0时不限制
+     */
+    private static volatile long MAX_IDLE_MILLIS = 0;
+
+    /**
+     * 构造器
+     */
+    private ContextEvictionTracker() {
+
+        throw new UnsupportedOperationException("tracker cannot be instantiated");
+    }
+
+    /**
+     * 设置淘汰策略
+     *
+     * @param maxContexts        上下文数量上限
+     * @param contextIdleSeconds 上下文最大空闲时间（秒）
+     */
+    static void configure(int maxContexts, long contextIdleSeconds) {
+
+        MAX_CONTEXTS = maxContexts;
+        MAX_IDLE_MILLIS = TimeUnit.SECONDS.toMillis(contextIdleSeconds);
+    }
+
+    /**
+     * 是否启用淘汰
+     *
+     * @return 是否启用淘汰
+     */
+    static boolean isEnabled() {
+
+        return MAX_CONTEXTS > 0 || MAX_IDLE_MILLIS > 0;
+    }
+
+    /**
+     * 跟踪上下文
+     *
+     * @param context 上下文
+     */
+    static synchronized void track(AnnotationConfigApplicationContext context) {
+
+        if (isEnabled() && !PINNED_CONTEXT_SET.contains(context)) {
+            ACCESS_TIME_MAP.put(context, System.currentTimeMillis());
+            ACCESS_GENERATION_MAP.put(context, GENERATION);
+        }
+    }
+
+    /**
+     * 记录上下文访问
+     *
+     * @param context 上下文
+     */
+    static void touch(AnnotationConfigApplicationContext context) {
+
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (ContextEvictionTracker.class) {
+            if (ACCESS_TIME_MAP.containsKey(context)) {
+                ACCESS_TIME_MAP.put(context, System.currentTimeMillis());
+                ACCESS_GENERATION_MAP.put(context, GENERATION);
+            }
+        }
+    }
+
+    /**
+     * 固定上下文，其中的bean被直接持有时调用，固定后不再淘汰
+     *
+     * @param context 上下文
+     */
+    static synchronized void pin(AnnotationConfigApplicationContext context) {
+
+        if (Objects.isNull(context) || !isEnabled()) {
+            return;
+        }
+        PINNED_CONTEXT_SET.add(context);
+        ACCESS_TIME_MAP.remove(context);
+        ACCESS_GENERATION_MAP.remove(context);
+    }
+
+    /**
+     * 在测试用例边界移除需要淘汰的上下文，最久未访问的在前，上一个测试用例访问过的上下文不淘汰
+     *
+     * @return 需要淘汰的上下文
+     */
+    static synchronized List<AnnotationConfigApplicationContext> evict() {
+
+        long finishedGeneration = GENERATION++;
+        List<AnnotationConfigApplicationContext> evictedList = Lists.newArrayList();
+        if (ACCESS_TIME_MAP.isEmpty()) {
+            return evictedList;
+        }
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<AnnotationConfigApplicationContext, Long>> iterator = ACCESS_TIME_MAP.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<AnnotationConfigApplicationContext, Long> accessEntry = iterator.next();
+            if (Objects.equals(ACCESS_GENERATION_MAP.get(accessEntry.getKey()), finishedGeneration)) {
+                continue;
+            }
+            boolean overSize = MAX_CONTEXTS > 0 && ACCESS_TIME_MAP.size() > MAX_CONTEXTS;
+            boolean idle = MAX_IDLE_MILLIS > 0 && now - accessEntry.getValue() > MAX_IDLE_MILLIS;
+            if (!overSize && !idle) {
+                continue;
+            }
+            evictedList.add(accessEntry.getKey());
+            ACCESS_GENERATION_MAP.remove(accessEntry.getKey());
+            iterator.remove();
+        }
+        return evictedList;
+    }
+
+}
@@ -1,14 +1,22 @@
 package io.github.atom.test;
 
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import io.github.atom.test.annonation.DubboReferenceMode;
 import io.github.atom.test.annonation.DynamicBeanLoading;
 import io.github.atom.test.annonation.DynamicResource;
+import io.github.atom.test.loader.BeanRequest;
+import io.github.atom.test.loader.DubboContextLoader;
+import io.github.atom.test.loader.DubboReplayInvocationHandler;
+import io.github.atom.test.loader.EmbeddedDataSourceLoader;
 import io.github.atom.test.loader.MyBatisContextLoader;
 import io.github.atom.test.loader.NacosContextLoader;
+import io.github.atom.test.loader.RedisContextLoader;
 import io.github.atom.test.loader.TestContextLoader;
 import io.github.atom.test.log.SpringRunnerLogInfo;
+import io.github.atom.test.utils.IntegrationCapabilities;
 import io.github.atom.test.utils.TestClassUtil;
 import javassist.util.proxy.ProxyFactory;
 import javassist.util.proxy.ProxyObject;
@@ -17,6 +25,11 @@ import org.junit.runner.RunWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanNotOfRequiredTypeException;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.NoUniqueBeanDefinitionException;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -24,6 +37,7 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfigurationImportSelector;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
@@ -31,10 +45,18 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.context.properties.ConfigurationPropertiesBindingPostProcessor;
 import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.cglib.proxy.Callback;
+import org.springframework.cglib.proxy.CallbackFilter;
 import org.springframework.cglib.proxy.Enhancer;
 import org.springframework.cglib.proxy.MethodInterceptor;
+import org.springframework.cglib.proxy.NoOp;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.*;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.CollectionFactory;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.support.DefaultConversionService;
@@ -57,6 +79,8 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * 动态bean加载
@@ -151,6 +175,72 @@ public class FastDynamicBeanLoadingTest {
      */
     private static final Map<Class<?>, Object> CREATED_CLASS_PROXY_MAP = Maps.newHashMap();
 
+    /**
+     * Dubbo依赖解析模式
+     */
+    private static DubboReferenceMode DUBBO_REFERENCE_MODE = DubboReferenceMode.REMOTE;
+
+    /**
+     * Dubbo默认录制目录
+     */
+    private static final String DUBBO_RECORDING_DIR = "src/test/resources/dubbo-recordings";
+
+    /**
+     * bean名称缓存（class为key）
+     */
+    private static final Map<Class<?>, String> CLASS_BEAN_NAME_CACHE = new ConcurrentHashMap<>(256);
+
+    /**
+     * bean名称缓存（字段为key）
+     */
+    private static final Map<Field, String> FIELD_BEAN_NAME_CACHE = new ConcurrentHashMap<>(256);
+
+    /**
+     * bean名称缓存（bean方法为key）
+     */
+    private static final Map<Method, String[]> METHOD_BEAN_NAME_CACHE = new ConcurrentHashMap<>(256);
+
+    /**
+     * 注解查找缓存（class为key），包括不存在的注解
+     */
+    private static final Map<Class<?>, Map<Class<? extends Annotation>, Optional<Annotation>>> CLASS_ANNOTATION_CACHE =
+        new ConcurrentHashMap<>(256);
+
+    /**
+     * 可选集成能力
+     */
+    private static volatile IntegrationCapabilities CAPABILITIES = IntegrationCapabilities.get();
+
+    /**
+     * 已代理的Dubbo接口
+     */
+    private static final Set<Class<?>> DUBBO_REFERENCE_CLASS_SET = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 是否延迟注入项目内对象的依赖
+     */
+    private static volatile boolean LAZY_FIELD_PROXY = false;
+
+    /**
+     * 待注入依赖的项目内代理对象
+     */
+    private static final Set<Object> PENDING_AGENT_SET = Collections.synchronizedSet(Sets.newIdentityHashSet());
+
+    /**
+     * 参数名解析器
+     */
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    /**
+     * 当前线程正在通过构造器创建的类，用于识别构造器循环依赖
+     */
+    private static final ThreadLocal<Set<Class<?>>> CONSTRUCTING_CLASS_SET = ThreadLocal.withInitial(Sets::newHashSet);
+
+    /**
+     * 精简上下文无法提供的bean（名称|类），再次获取时直接注册完整配置链
+     */
+    private static final Set<String> FAILED_SELECTION_SET = ConcurrentHashMap.newKeySet();
+
     /**
      * 测试用例执行前装载上下文，代理对象
      */
@@ -158,6 +248,7 @@ public class FastDynamicBeanLoadingTest {
     public void before() {
 
         if (IS_LOADED) {
+            evictContexts();
             agentTestField(this);
             return;
         }
@@ -166,9 +257,11 @@ public class FastDynamicBeanLoadingTest {
             throw new IllegalArgumentException("The test class must be annotated with @DynamicBeanLoading");
         }
 
+        CAPABILITIES = IntegrationCapabilities.detect();
+
         // 加载全局属性对象
         ConfigurableEnvironment env = ALL_CONTEXT.getEnvironment();
-        addPropertySource(testDynamicBeanLoading, env);
+        CompletableFuture<Void> propertiesLoaded = addPropertySource(testDynamicBeanLoading, env);
         ConfigurationPropertiesBindingPostProcessor.register((BeanDefinitionRegistry)ALL_CONTEXT.getBeanFactory());
         ALL_CONTEXT.refresh();
 
@@ -178,15 +271,50 @@ public class FastDynamicBeanLoadingTest {
             NacosContextLoader.loaded();
         }
         TEST_MAIN_RUN_CLASS = testDynamicBeanLoading.mainClass();
+        DUBBO_REFERENCE_MODE = testDynamicBeanLoading.dubboMode();
+        MyBatisContextLoader.setLazyMapperXml(testDynamicBeanLoading.lazyMapperXml());
+        EmbeddedDataSourceLoader.configure(testDynamicBeanLoading.embeddedDatabase(),
+            testDynamicBeanLoading.embeddedDatabaseScripts()
+        );
+        RedisContextLoader.setEmbeddedRedis(testDynamicBeanLoading.embeddedRedis());
+        LAZY_FIELD_PROXY = testDynamicBeanLoading.lazyFieldProxy();
+        ContextEvictionTracker.configure(testDynamicBeanLoading.maxContexts(),
+            testDynamicBeanLoading.contextIdleSeconds()
+        );
         MAIN_CLASS_PACKAGE = TEST_MAIN_RUN_CLASS.getPackage().getName();
+        ConditionOutcomeCache.configure(MAIN_CLASS_PACKAGE, ALL_CONTEXT.getEnvironment(), propertiesLoaded);
+        NacosContextLoader.addReloadListener(ConditionOutcomeCache::clear);
+        NacosContextLoader.addReloadListener(BeanDefinitionTemplateCache::clear);
 
         scanBeans(TEST_MAIN_RUN_CLASS);
         scanSpringBeans();
         loadStaticClassDependency(testDynamicBeanLoading);
         agentTestField(this);
+        if (testDynamicBeanLoading.dubboBatchRefer() && DubboReferenceMode.REMOTE == DUBBO_REFERENCE_MODE) {
+            batchReferDubbo();
+        }
         IS_LOADED = true;
     }
 
+    /**
+     * 异步批量引用已代理的Dubbo接口
+     */
+    private static void batchReferDubbo() {
+
+        if (DUBBO_REFERENCE_CLASS_SET.isEmpty()) {
+            return;
+        }
+        Class<?> dubboReferenceAnnotation = CAPABILITIES.getDubboReferenceAnnotation();
+        List<BeanRequest> dubboReferenceRequestList = Lists.newArrayList();
+        for (Class<?> dubboReferenceClass : DUBBO_REFERENCE_CLASS_SET) {
+            dubboReferenceRequestList.add(new BeanRequest(null, dubboReferenceClass, dubboReferenceAnnotation));
+        }
+        CompletableFuture.runAsync(() -> getOrCreateAll(dubboReferenceRequestList), ASYNC_LOADER).exceptionally(e -> {
+            LOG.error("批量引用dubbo依赖失败", e);
+            return null;
+        });
+    }
+
     /**
      * 加载静态依赖
      *
@@ -208,16 +336,11 @@ public class FastDynamicBeanLoadingTest {
                     continue;
                 }
                 for (Class<?> implClass : implClasses) {
-                    if (Objects.isNull(AnnotationUtils.findAnnotation(implClass, Component.class))) {
-                        continue;
-                    }
-                    if (isMainPackage) {
-                        CREATED_CLASS_PROXY_MAP.put(implClass,
-                            createCglibProxy(getBeanName(implClass), implClass)
-                        );
+                    if (Objects.isNull(tryGetAnnotation(implClass, Component.class))) {
                         continue;
                     }
-                    CREATED_CLASS_PROXY_MAP.put(implClass, registerNewAndGet(getBeanName(implClass), implClass));
+                    // 缓存懒加载代理而非bean，上下文被淘汰后代理可重新创建
+                    CREATED_CLASS_PROXY_MAP.put(implClass, createCglibProxy(getBeanName(implClass), implClass));
                 }
                 continue;
             }
@@ -225,24 +348,29 @@ public class FastDynamicBeanLoadingTest {
                 CREATED_CLASS_PROXY_MAP.put(staticClass, createCglibProxy(getBeanName(staticClass), staticClass));
                 continue;
             }
-            Component staticComponent = AnnotationUtils.findAnnotation(staticClass, Component.class);
+            Component staticComponent = tryGetAnnotation(staticClass, Component.class);
             if (Objects.nonNull(staticComponent)) {
-                CREATED_CLASS_PROXY_MAP.put(staticClass, registerNewAndGet(getBeanName(staticClass), staticClass));
+                CREATED_CLASS_PROXY_MAP.put(staticClass, createCglibProxy(getBeanName(staticClass), staticClass));
                 continue;
             }
             Field[] declaredFields = staticClass.getDeclaredFields();
             for (Field declaredField : declaredFields) {
-                if (!Modifier.isStatic(declaredField.getModifiers())) {
+                if (!Modifier.isStatic(declaredField.getModifiers()) || Modifier.isFinal(declaredField.getModifiers())) {
                     continue;
                 }
                 if (TestClassUtil.isPrimitiveOrWrapper(declaredField.getType())) {
                     continue;
                 }
+                String beanName = getBeanName(declaredField);
+                if (!hasKnownProvider(beanName, declaredField.getType())) {
+                    continue;
+                }
                 try {
-                    Object fieldValue = registerNewAndGet(getBeanName(declaredField), declaredField.getType());
-                    CREATED_CLASS_PROXY_MAP.put(declaredField.getType(), fieldValue);
                     declaredField.setAccessible(true);
-                    declaredField.set(null, fieldValue);
+                    if (Objects.nonNull(declaredField.get(null))) {
+                        continue;
+                    }
+                    declaredField.set(null, getStaticFieldValue(beanName, declaredField.getType()));
                 } catch (Exception ignore) {
                 }
             }
@@ -253,31 +381,12 @@ public class FastDynamicBeanLoadingTest {
         if (Objects.isNull(applicationContextAwareClass)) {
             return;
         }
-        AnnotationConfigApplicationContext staticApplicationContext = getNewApplicationContext();
+        // getBean时才按需获取bean，不复制已装载上下文中的bean
+        LazyBeanFactory lazyBeanFactory = new LazyBeanFactory();
+        GenericApplicationContext staticApplicationContext = new GenericApplicationContext(lazyBeanFactory);
+        staticApplicationContext.setEnvironment(ALL_CONTEXT.getEnvironment());
         staticApplicationContext.refresh();
-        for (Map.Entry<Class<?>, Object> createdProxyEntry : CREATED_CLASS_PROXY_MAP.entrySet()) {
-            String beanName = getBeanName(createdProxyEntry.getKey());
-            if (staticApplicationContext.containsBean(beanName)) {
-                continue;
-            }
-            staticApplicationContext.getBeanFactory().registerSingleton(beanName, createdProxyEntry.getValue());
-        }
-        for (AnnotationConfigApplicationContext app : CLASS_APPLICATION_MAP.values()) {
-            for (String beanName : app.getBeanDefinitionNames()) {
-                if (staticApplicationContext.containsBean(beanName)) {
-                    continue;
-                }
-                staticApplicationContext.getBeanFactory().registerSingleton(beanName, app.getBean(beanName));
-            }
-        }
-        for (AnnotationConfigApplicationContext app : NAME_APPLICATION_MAP.values()) {
-            for (String beanName : app.getBeanDefinitionNames()) {
-                if (staticApplicationContext.containsBean(beanName)) {
-                    continue;
-                }
-                staticApplicationContext.getBeanFactory().registerSingleton(beanName, app.getBean(beanName));
-            }
-        }
+        lazyBeanFactory.enableLazyLookup();
 
         for (Class<?> clazz : BEAN_CLASS_IMPL_MAP.get(applicationContextAwareClass)) {
 
@@ -288,7 +397,8 @@ public class FastDynamicBeanLoadingTest {
             if (isMainPackage) {
                 bean = createCglibProxy(getBeanName(clazz), clazz);
             } else {
-                bean = registerNewAndGet(getBeanName(clazz), clazz);
+                // 需要替换bean持有的上下文，bean被直接持有，固定其所在的上下文
+                bean = registerPinnedAndGet(getBeanName(clazz), clazz);
             }
             if (Objects.isNull(bean)) {
                 continue;
@@ -303,15 +413,57 @@ public class FastDynamicBeanLoadingTest {
 
     }
 
+    /**
+     * 是否存在已知的bean提供者
+     *
+     * @param name        名称
+     * @param targetClass 类
+     * @return 是否存在已知的bean提供者
+     */
+    private static boolean hasKnownProvider(String name, Class<?> targetClass) {
+
+        return BEAN_NAME_DEPENDENCY_CONFIGURATION_CLASSES.containsKey(name)
+            || BEAN_CLASS_DEPENDENCY_CONFIGURATION_CLASSES.containsKey(targetClass)
+            || !TestClassUtil.isCollectionEmpty(BEAN_CLASS_IMPL_MAP.get(targetClass))
+            || Objects.nonNull(tryGetAnnotation(targetClass, Component.class))
+            || Objects.nonNull(BeanProviderGraph.getProvidedClass(name))
+            || BeanProviderGraph.hasProvider(null, targetClass, "");
+    }
+
+    /**
+     * 获取静态字段值，与@DynamicResource相同使用懒加载代理，无法生成代理时直接获取bean
+     *
+     * @param name        名称
+     * @param targetClass 类
+     * @return 静态字段值
+     */
+    private static Object getStaticFieldValue(String name, Class<?> targetClass) {
+
+        if (Modifier.isFinal(targetClass.getModifiers())) {
+            return registerPinnedAndGet(name, targetClass);
+        }
+        try {
+            Object proxy = createCglibProxy(name, targetClass);
+            if (targetClass.isInstance(proxy)) {
+                return proxy;
+            }
+        } catch (Exception e) {
+            LOG.debug("静态字段代理失败，name:{}，class：{}", name, targetClass.getName(), e);
+        }
+        return registerPinnedAndGet(name, targetClass);
+    }
+
     /**
      * 添加属性
      *
      * @param dynamicBeanLoading 上下文
      * @param env                环境
+     * @return 装载结果
      */
-    private static void addPropertySource(DynamicBeanLoading dynamicBeanLoading, ConfigurableEnvironment env) {
+    private static CompletableFuture<Void> addPropertySource(DynamicBeanLoading dynamicBeanLoading,
+                                                             ConfigurableEnvironment env) {
 
-        loadConfigurations(env, dynamicBeanLoading.properties());
+        return loadConfigurations(env, dynamicBeanLoading.properties());
     }
 
     /**
@@ -347,10 +499,11 @@ public class FastDynamicBeanLoadingTest {
      *
      * @param env       环境
      * @param locations 位置
+     * @return 装载结果
      */
-    private static void loadConfigurations(ConfigurableEnvironment env, String[] locations) {
+    private static CompletableFuture<Void> loadConfigurations(ConfigurableEnvironment env, String[] locations) {
 
-        CompletableFuture.runAsync(() -> {
+        return CompletableFuture.runAsync(() -> {
             for (String location : locations) {
                 try {
                     if (location.endsWith(".yml") || location.endsWith(".yaml")) {
@@ -433,7 +586,8 @@ public class FastDynamicBeanLoadingTest {
             autoConfigurationImportSelector.selectImports(AnnotationMetadata.introspect(TEST_MAIN_RUN_CLASS));
         for (String autoConfiguration : autoConfigurationList) {
             Class<?> autoConfigurationClass = TestClassUtil.tryGetClass(autoConfiguration);
-            if (Objects.isNull(autoConfigurationClass)) {
+            if (Objects.isNull(autoConfigurationClass)
+                || !ConditionOutcomeCache.matchesClassConditions(autoConfigurationClass)) {
                 continue;
             }
             analysisConfigurationClass(autoConfigurationClass);
@@ -700,7 +854,8 @@ public class FastDynamicBeanLoadingTest {
         if (Objects.nonNull(configAutoConfigureAfter)
             && TestClassUtil.isArrayNotEmpty(configAutoConfigureAfter.value())) {
             for (Class<?> configAutoConfigureAfterClass : configAutoConfigureAfter.value()) {
-                if (isNotConfigurationClass(configAutoConfigureAfterClass)) {
+                if (isNotConfigurationClass(configAutoConfigureAfterClass)
+                    || !ConditionOutcomeCache.matchesClassConditions(configAutoConfigureAfterClass)) {
                     continue;
                 }
                 chainClassList.add(configAutoConfigureAfterClass);
@@ -711,7 +866,8 @@ public class FastDynamicBeanLoadingTest {
         AutoConfiguration configAutoConfigure = tryGetAnnotation(configurationClass, AutoConfiguration.class);
         if (Objects.nonNull(configAutoConfigure) && TestClassUtil.isArrayNotEmpty(configAutoConfigure.after())) {
             for (Class<?> configAutoConfigureClass : configAutoConfigure.after()) {
-                if (isNotConfigurationClass(configAutoConfigureClass)) {
+                if (isNotConfigurationClass(configAutoConfigureClass)
+                    || !ConditionOutcomeCache.matchesClassConditions(configAutoConfigureClass)) {
                     continue;
                 }
                 chainClassList.add(configAutoConfigureClass);
@@ -722,7 +878,8 @@ public class FastDynamicBeanLoadingTest {
         Import configImport = tryGetAnnotation(configurationClass, Import.class);
         if (Objects.nonNull(configImport) && TestClassUtil.isArrayNotEmpty(configImport.value())) {
             for (Class<?> importClass : configImport.value()) {
-                if (isNotConfigurationClass(importClass)) {
+                if (isNotConfigurationClass(importClass)
+                    || !ConditionOutcomeCache.matchesClassConditions(importClass)) {
                     continue;
                 }
                 importClassList.add(importClass);
@@ -734,7 +891,8 @@ public class FastDynamicBeanLoadingTest {
         ConditionalOnClass conditionalOnClasses = tryGetAnnotation(configurationClass, ConditionalOnClass.class);
         if (Objects.nonNull(conditionalOnClasses) && TestClassUtil.isArrayNotEmpty(conditionalOnClasses.value())) {
             for (Class<?> conditionalOnClass : conditionalOnClasses.value()) {
-                if (isNotConfigurationClass(conditionalOnClass)) {
+                if (isNotConfigurationClass(conditionalOnClass)
+                    || !ConditionOutcomeCache.matchesClassConditions(conditionalOnClass)) {
                     continue;
                 }
                 chainClassList.add(conditionalOnClass);
@@ -752,11 +910,7 @@ public class FastDynamicBeanLoadingTest {
      */
     private static boolean isNotConfigurationClass(Class<?> configurationClass) {
 
-        try {
-            return AnnotationUtils.findAnnotation(configurationClass, Configuration.class) == null;
-        } catch (Throwable ignore) {
-            return true;
-        }
+        return Objects.isNull(tryGetAnnotation(configurationClass, Configuration.class));
     }
 
     /**
@@ -804,6 +958,7 @@ public class FastDynamicBeanLoadingTest {
                 continue;
             }
             String[] beanNames = getBeanName(declaredMethod);
+            BeanProviderGraph.addProvider(autoConfigurationClass, rootConfigurationClass, declaredMethod, beanNames);
             for (String beanName : beanNames) {
                 BEAN_NAME_DEPENDENCY_CONFIGURATION_CLASSES.compute(beanName, (key, value) -> {
                     if (Objects.isNull(value)) {
@@ -913,30 +1068,32 @@ public class FastDynamicBeanLoadingTest {
             return enhanceProxy;
         }
 
+        EnhanceDispatchFilter dispatchFilter = new EnhanceDispatchFilter(targetClass, isMainPackage);
         Enhancer enhancer = new Enhancer();
         enhancer.setSuperclass(targetClass);
-        enhancer.setCallback((MethodInterceptor)(target, method, args, methodProxy) -> {
-            Object fromRegisterContext = getFromRegisterContext(targetClass, name);
-            if (Objects.nonNull(fromRegisterContext)) {
-                return method.invoke(fromRegisterContext, args);
-            }
-            if (MyBatisContextLoader.isGetBaseMapperMethod(targetClass, method.getName())) {
-                Type genericSuperclass = targetClass.getGenericSuperclass();
-                Class<?> returnType = method.getReturnType();
-                Class<?> actualType = null;
-                actualType = TestClassUtil.getActualClass(genericSuperclass, actualType);
-                return registerNewAndGet(null, Objects.nonNull(actualType) ? actualType : returnType);
-            }
-            if (isMainPackage) {
+        enhancer.setCallbackFilter(dispatchFilter);
+        enhancer.setCallbacks(new Callback[] {
+            NoOp.INSTANCE,
+            (MethodInterceptor)(target, method, args, methodProxy) -> invokeBaseMapper(name, targetClass, method, args),
+            (MethodInterceptor)(target, method, args, methodProxy) -> {
+                Object fromRegisterContext = getFromRegisterContext(targetClass, name);
+                if (Objects.nonNull(fromRegisterContext)) {
+                    return method.invoke(fromRegisterContext, args);
+                }
+                agentIfPending(target, targetClass);
                 return methodProxy.invokeSuper(target, args);
-            } else {
-                return method.invoke(registerNewAndGet(name, targetClass), args);
-            }
+            },
+            (MethodInterceptor)(target, method, args, methodProxy) -> method.invoke(registerNewAndGet(name, targetClass),
+                args
+            )
         });
+        Constructor<?> injectionConstructor = isMainPackage ? getInjectionConstructor(targetClass) : null;
         try {
-            Object enhanceProxy = enhancer.create();
+            Object enhanceProxy = Objects.isNull(injectionConstructor)
+                ? enhancer.create()
+                : createWithConstructor(enhancer, targetClass, injectionConstructor);
             addedProxy(targetClass, enhanceProxy, simpleBeans);
-            agent(enhanceProxy, targetClass);
+            agentOrDefer(enhanceProxy, targetClass, isMainPackage);
             return enhanceProxy;
         } catch (Exception ignore) {
         }
@@ -948,31 +1105,290 @@ public class FastDynamicBeanLoadingTest {
             // 绕过构造器初始化对象，将跳过对象初始化过程
             Object enhanceProxy = createEmptyInstance(proxyClass);
             ((ProxyObject)enhanceProxy).setHandler((self, method, proceed, args) -> {
-                Object fromRegisterContext = getFromRegisterContext(targetClass, name);
-                if (Objects.nonNull(fromRegisterContext)) {
-                    return method.invoke(fromRegisterContext, args);
-                }
-                if (MyBatisContextLoader.isGetBaseMapperMethod(targetClass, method.getName())) {
-                    Type genericSuperclass = targetClass.getGenericSuperclass();
-                    Class<?> returnType = method.getReturnType();
-                    Class<?> actualType = null;
-                    actualType = TestClassUtil.getActualClass(genericSuperclass, actualType);
-                    return registerNewAndGet(null, Objects.nonNull(actualType) ? actualType : returnType);
-                }
-                if (isMainPackage) {
-                    return proceed.invoke(self, args);
-                } else {
-                    return method.invoke(registerNewAndGet(name, targetClass), args);
+                switch (dispatchFilter.accept(method)) {
+                    case EnhanceDispatchFilter.OBJECT_METHOD:
+                        return proceed.invoke(self, args);
+                    case EnhanceDispatchFilter.BASE_MAPPER_METHOD:
+                        return invokeBaseMapper(name, targetClass, method, args);
+                    case EnhanceDispatchFilter.LOCAL_METHOD:
+                        Object fromRegisterContext = getFromRegisterContext(targetClass, name);
+                        if (Objects.nonNull(fromRegisterContext)) {
+                            return method.invoke(fromRegisterContext, args);
+                        }
+                        agentIfPending(self, targetClass);
+                        return proceed.invoke(self, args);
+                    default:
+                        return method.invoke(registerNewAndGet(name, targetClass), args);
                 }
             });
             addedProxy(targetClass, enhanceProxy, simpleBeans);
-            agent(enhanceProxy, targetClass);
+            agentOrDefer(enhanceProxy, targetClass, isMainPackage);
             return enhanceProxy;
         } catch (Exception e) {
             throw new RuntimeException(String.format("无法代理对象,name:%s，class：%s", name, targetClass.getName()), e);
         }
     }
 
+    /**
+     * 执行getBaseMapper方法，已装载bean时调用bean，否则返回泛型声明的mapper
+     *
+     * @param name        名称
+     * @param targetClass 类
+     * @param method      方法
+     * @param args        参数
+     * @return 方法返回值
+     * @throws Throwable 调用失败时抛出
+     */
+    private static Object invokeBaseMapper(String name, Class<?> targetClass, Method method, Object[] args)
+        throws Throwable {
+
+        Object fromRegisterContext = getFromRegisterContext(targetClass, name);
+        if (Objects.nonNull(fromRegisterContext)) {
+            return method.invoke(fromRegisterContext, args);
+        }
+        Type genericSuperclass = targetClass.getGenericSuperclass();
+        Class<?> returnType = method.getReturnType();
+        Class<?> actualType = null;
+        actualType = TestClassUtil.getActualClass(genericSuperclass, actualType);
+        return registerNewAndGet(null, Objects.nonNull(actualType) ? actualType : returnType);
+    }
+
+    /**
+     * 获取构造器注入使用的构造器，规则与spring一致：优先@Autowired构造器，其次唯一构造器
+     *
+     * @param clazz 类
+     * @return 构造器，无参构造器可用时返回null
+     */
+    private static Constructor<?> getInjectionConstructor(Class<?> clazz) {
+
+        Constructor<?>[] declaredConstructors = clazz.getDeclaredConstructors();
+        Constructor<?> injectionConstructor = declaredConstructors.length == 1 ? declaredConstructors[0] : null;
+        for (Constructor<?> declaredConstructor : declaredConstructors) {
+            if (declaredConstructor.isAnnotationPresent(Autowired.class)) {
+                injectionConstructor = declaredConstructor;
+                break;
+            }
+        }
+        if (Objects.isNull(injectionConstructor)
+            || injectionConstructor.getParameterCount() == 0
+            || Modifier.isPrivate(injectionConstructor.getModifiers())) {
+            return null;
+        }
+        return injectionConstructor;
+    }
+
+    /**
+     * 通过构造器创建增强代理，构造器参数为懒加载代理
+     *
+     * @param enhancer    增强器
+     * @param targetClass 类
+     * @param constructor 构造器
+     * @return 增强代理
+     */
+    private static Object createWithConstructor(Enhancer enhancer, Class<?> targetClass, Constructor<?> constructor) {
+
+        Set<Class<?>> constructingClassSet = CONSTRUCTING_CLASS_SET.get();
+        if (!constructingClassSet.add(targetClass)) {
+            throw new IllegalStateException("circular constructor dependency:" + targetClass.getName());
+        }
+        try {
+            return enhancer.create(constructor.getParameterTypes(), resolveConstructorArguments(constructor));
+        } finally {
+            constructingClassSet.remove(targetClass);
+        }
+    }
+
+    /**
+     * 解析构造器参数
+     *
+     * @param constructor 构造器
+     * @return 构造器参数
+     */
+    private static Object[] resolveConstructorArguments(Constructor<?> constructor) {
+
+        String[] parameterNames = PARAMETER_NAME_DISCOVERER.getParameterNames(constructor);
+        Parameter[] parameters = constructor.getParameters();
+        Object[] arguments = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            String parameterName = Objects.nonNull(parameterNames) ? parameterNames[i] : parameters[i].getName();
+            arguments[i] = resolveConstructorArgument(parameters[i], parameterName);
+        }
+        return arguments;
+    }
+
+    /**
+     * 解析构造器参数，@Value参数从全局属性获取，bean参数使用懒加载代理
+     * ObjectProvider按需获取，Optional、集合、Map及数组按元素类型获取，不存在时为空容器
+     *
+     * @param parameter     参数
+     * @param parameterName 参数名
+     * @return 参数值
+     */
+    private static Object resolveConstructorArgument(Parameter parameter, String parameterName) {
+
+        Class<?> type = parameter.getType();
+        Value valueAnno = parameter.getAnnotation(Value.class);
+        if (Objects.nonNull(valueAnno)) {
+            NacosContextLoader.await();
+            String value = ALL_CONTEXT.getEnvironment().resolvePlaceholders(valueAnno.value());
+            return CONVERSION_SERVICE.convert(value, type);
+        }
+        if (type.isPrimitive()) {
+            return Array.get(Array.newInstance(type, 1), 0);
+        }
+        Qualifier qualifier = parameter.getAnnotation(Qualifier.class);
+        String beanName = Objects.nonNull(qualifier) && StringUtils.hasText(qualifier.value())
+            ? qualifier.value()
+            : parameterName;
+        ResolvableType resolvableType = ResolvableType.forType(parameter.getParameterizedType());
+        if (ObjectFactory.class.isAssignableFrom(type) && type.isAssignableFrom(LazyBeanProvider.class)) {
+            ResolvableType elementType = resolvableType.getGeneric(0);
+            if (Objects.isNull(elementType.resolve())) {
+                return null;
+            }
+            LazyBeanFactory lazyBeanFactory = new LazyBeanFactory();
+            lazyBeanFactory.enableLazyLookup();
+            return new LazyBeanProvider<>(lazyBeanFactory, elementType);
+        }
+        if (Optional.class.equals(type)) {
+            Class<?> elementClass = resolvableType.getGeneric(0).resolve();
+            if (Objects.isNull(elementClass)
+                || (getLazyBeanNamesForType(resolvableType.getGeneric(0)).isEmpty()
+                && !hasKnownProvider(beanName, elementClass))) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(createConstructorArgumentProxy(beanName, elementClass));
+        }
+        if (type.isArray() || Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
+            return resolveConstructorBeans(resolvableType);
+        }
+        if (TestClassUtil.isPrimitiveOrWrapper(type) || (type.getName().startsWith("java.") && !type.isInterface())) {
+            return null;
+        }
+        return createConstructorArgumentProxy(beanName, type);
+    }
+
+    /**
+     * 创建构造器参数的懒加载代理
+     *
+     * @param beanName 名称
+     * @param type     类
+     * @return 懒加载代理，无法生成时返回null
+     */
+    private static Object createConstructorArgumentProxy(String beanName, Class<?> type) {
+
+        try {
+            return createCglibProxy(beanName, type);
+        } catch (Exception e) {
+            LOG.debug("构造器参数代理失败，name:{}，class：{}", beanName, type.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 解析集合、Map及数组类型的构造器参数，元素为已装载上下文中的bean或已知实现的懒加载代理
+     *
+     * @param type 参数类型
+     * @return 参数值，不支持的容器类型返回null
+     */
+    private static Object resolveConstructorBeans(ResolvableType type) {
+
+        Class<?> rawClass = type.toClass();
+        boolean isMap = Map.class.isAssignableFrom(rawClass);
+        ResolvableType elementType = rawClass.isArray()
+            ? type.getComponentType()
+            : type.getGeneric(isMap ? 1 : 0);
+        Class<?> elementClass = elementType.resolve(Object.class);
+        Map<String, Object> beanMap = new LinkedHashMap<>();
+        if (!elementClass.isPrimitive() && !TestClassUtil.isPrimitiveOrWrapper(elementClass)) {
+            for (String name : getLazyBeanNamesForType(elementType)) {
+                addConstructorBean(beanMap, name, elementClass);
+            }
+            String elementName = getBeanName(elementClass);
+            if (beanMap.isEmpty() && hasKnownProvider(elementName, elementClass)) {
+                addConstructorBean(beanMap, elementName, elementClass);
+            }
+        }
+        try {
+            if (rawClass.isArray()) {
+                Object array = Array.newInstance(elementClass, beanMap.size());
+                int index = 0;
+                for (Object bean : beanMap.values()) {
+                    Array.set(array, index++, bean);
+                }
+                return array;
+            }
+            if (isMap) {
+                Class<?> keyClass = type.getGeneric(0).resolve(Object.class);
+                Map<Object, Object> map = CollectionFactory.createMap(rawClass, keyClass, beanMap.size());
+                if (keyClass.isAssignableFrom(String.class)) {
+                    map.putAll(beanMap);
+                }
+                return map;
+            }
+            Collection<Object> collection = CollectionFactory.createCollection(rawClass, elementClass, beanMap.size());
+            collection.addAll(beanMap.values());
+            return collection;
+        } catch (IllegalArgumentException e) {
+            LOG.debug("构造器参数容器创建失败，class：{}", rawClass.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 获取构造器参数容器的元素
+     *
+     * @param beanMap      元素（名称为key）
+     * @param name         名称
+     * @param elementClass 元素类
+     */
+    private static void addConstructorBean(Map<String, Object> beanMap, String name, Class<?> elementClass) {
+
+        try {
+            Object bean = getLazyBean(name, elementClass);
+            if (elementClass.isInstance(bean)) {
+                beanMap.put(name, bean);
+            }
+        } catch (Exception e) {
+            LOG.debug("构造器参数元素获取失败，name:{}，class：{}", name, elementClass.getName(), e);
+        }
+    }
+
+    /**
+     * 注入代理对象的依赖，延迟注入模式下项目内对象在方法首次执行时注入
+     *
+     * @param enhanceProxy  增强代理
+     * @param targetClass   类
+     * @param isMainPackage 是否项目内对象
+     */
+    private static void agentOrDefer(Object enhanceProxy, Class<?> targetClass, boolean isMainPackage) {
+
+        if (LAZY_FIELD_PROXY && isMainPackage) {
+            PENDING_AGENT_SET.add(enhanceProxy);
+            return;
+        }
+        agent(enhanceProxy, targetClass);
+    }
+
+    /**
+     * 注入尚未注入依赖的代理对象
+     *
+     * @param enhanceProxy 增强代理
+     * @param targetClass  类
+     */
+    private static void agentIfPending(Object enhanceProxy, Class<?> targetClass) {
+
+        if (!PENDING_AGENT_SET.contains(enhanceProxy)) {
+            return;
+        }
+        synchronized (enhanceProxy) {
+            if (PENDING_AGENT_SET.contains(enhanceProxy)) {
+                agent(enhanceProxy, targetClass);
+                PENDING_AGENT_SET.remove(enhanceProxy);
+            }
+        }
+    }
+
     /**
      * 代理对象
      *
@@ -999,23 +1415,45 @@ public class FastDynamicBeanLoadingTest {
      */
     private static Object createDubboEnhanceProxy(String name, Class<?> targetClass) {
 
+        if (DubboReferenceMode.REMOTE != DUBBO_REFERENCE_MODE
+            && !TestClassUtil.isCollectionEmpty(BEAN_CLASS_IMPL_MAP.get(targetClass))) {
+            // 使用项目内的接口实现代替远程服务
+            return createCglibProxy(name, targetClass);
+        }
         try {
+            InvocationHandler remoteHandler = (proxy, method, args) -> method.invoke(registerNewAndGet(name,
+                targetClass,
+                CAPABILITIES.getDubboReferenceAnnotation()
+            ), args);
+            InvocationHandler invocationHandler = remoteHandler;
+            if (DubboReferenceMode.LOCAL == DUBBO_REFERENCE_MODE) {
+                invocationHandler = new DubboReplayInvocationHandler(targetClass, getDubboRecordingDir(), null);
+            } else if (DubboReferenceMode.RECORD == DUBBO_REFERENCE_MODE) {
+                invocationHandler =
+                    new DubboReplayInvocationHandler(targetClass, getDubboRecordingDir(), remoteHandler);
+            }
             Object enhanceProxy = Proxy.newProxyInstance(targetClass.getClassLoader(),
                 new Class[] {targetClass},
-                ((proxy, method, args) -> {
-                    return method.invoke(registerNewAndGet(name,
-                        targetClass,
-                        TestClassUtil.tryGetClass("org.apache.dubbo.config.annotation.DubboReference")
-                    ), args);
-                })
+                invocationHandler
             );
             CREATED_CLASS_PROXY_MAP.put(targetClass, enhanceProxy);
+            DUBBO_REFERENCE_CLASS_SET.add(targetClass);
             return enhanceProxy;
         } catch (Exception e) {
             throw new RuntimeException(String.format("无法代理对象,name:%s，class：%s", name, targetClass.getName()), e);
         }
     }
 
+    /**
+     * 获取Dubbo录制目录
+     *
+     * @return Dubbo录制目录
+     */
+    private static String getDubboRecordingDir() {
+
+        return ALL_CONTEXT.getEnvironment().getProperty("atom-test.dubbo.recording-dir", DUBBO_RECORDING_DIR);
+    }
+
     /**
      * 注册并获取bean
      *
@@ -1032,70 +1470,327 @@ public class FastDynamicBeanLoadingTest {
             return fromRegisterContext;
         }
 
-        AnnotationConfigApplicationContext newApplicationContext = getNewApplicationContext();
-        newApplicationContext.addBeanFactoryPostProcessor(new EmptyDependsOnProcessor());
-        for (PropertySource<?> propertySource : ALL_CONTEXT.getEnvironment().getPropertySources()) {
-            newApplicationContext.getEnvironment().getPropertySources().addLast(propertySource);
-        }
-        ServiceLoader<TestContextLoader> loaders = ServiceLoader.load(TestContextLoader.class);
-        for (TestContextLoader loader : loaders) {
-            if (loader.canHandle(newApplicationContext, name, targetClass, annotationClasses)) {
-                return loader.getOrCreate(newApplicationContext, name, targetClass, annotationClasses);
-            }
-        }
-        Set<Class<?>> registeredClasses = Sets.newHashSet();
-        List<Class<?>> nameDependencyConfigurationList =
-            BEAN_NAME_DEPENDENCY_CONFIGURATION_CLASSES.getOrDefault(name, Collections.emptyList());
-        for (Class<?> dependencyConfiguration : nameDependencyConfigurationList) {
-            if (registeredClasses.contains(dependencyConfiguration)) {
-                continue;
-            }
-            newApplicationContext.register(dependencyConfiguration);
-            registeredClasses.add(dependencyConfiguration);
-        }
-        List<Class<?>> classDependencyConfigurationList =
-            BEAN_CLASS_DEPENDENCY_CONFIGURATION_CLASSES.getOrDefault(targetClass, Collections.emptyList());
-        for (Class<?> dependencyConfiguration : classDependencyConfigurationList) {
-            if (registeredClasses.contains(dependencyConfiguration)) {
-                continue;
-            }
-            newApplicationContext.register(dependencyConfiguration);
-            registeredClasses.add(dependencyConfiguration);
-        }
-        if (nameDependencyConfigurationList.isEmpty() && classDependencyConfigurationList.isEmpty()) {
-            newApplicationContext.register(targetClass);
-        }
+        AnnotationConfigApplicationContext newApplicationContext = getNewLoaderContext();
+        TestContextLoader loader = getTestContextLoader(ServiceLoader.load(TestContextLoader.class),
+            newApplicationContext,
+            name,
+            targetClass,
+            annotationClasses
+        );
+        if (Objects.nonNull(loader)) {
+            return loader.getOrCreate(newApplicationContext, name, targetClass, annotationClasses);
+        }
+        Object selectedBean = registerSelectedAndGet(name, targetClass);
+        if (Objects.nonNull(selectedBean)) {
+            return selectedBean;
+        }
+        Set<Class<?>> dependencyConfigurationSet = getDependencyConfigurationClasses(name, targetClass);
+        registerConfigurationClasses(newApplicationContext,
+            dependencyConfigurationSet.isEmpty() ? Collections.singletonList(targetClass) : dependencyConfigurationSet
+        );
+        newApplicationContext.addBeanFactoryPostProcessor(new RequestedBeanLazyInitProcessor(name, targetClass));
         newApplicationContext.refresh();
-        Object registerBean = tryGetBean(newApplicationContext, name, targetClass);
-        if (StringUtils.hasText(name)) {
-            NAME_APPLICATION_MAP.put(name, newApplicationContext);
-        }
-        CLASS_APPLICATION_MAP.put(targetClass, newApplicationContext);
-        return registerBean;
+        return cacheEvictableAndGet(newApplicationContext, name, targetClass);
     }
 
     /**
-     * 刷新上下文
+     * 从已刷新的上下文获取bean，缓存上下文并跟踪访问，淘汰只在测试用例执行前进行
      *
      * @param context     上下文
      * @param name        名称
      * @param targetClass 类
      * @return bean
      */
-    public static Object refreshAndGet(AnnotationConfigApplicationContext context, String name, Class<?> targetClass) {
+    private static Object cacheEvictableAndGet(AnnotationConfigApplicationContext context,
+                                               String name,
+                                               Class<?> targetClass) {
 
-        NacosContextLoader.await();
-        Object fromRegisterContext = getFromRegisterContext(targetClass, name);
-        if (Objects.nonNull(fromRegisterContext)) {
-            return fromRegisterContext;
-        }
+        Object registerBean = cacheAndGet(context, name, targetClass);
+        ContextEvictionTracker.track(context);
+        return registerBean;
+    }
 
+    /**
+     * 获取bean并固定其所在的上下文，用于bean被直接持有而非通过代理访问的场景
+     *
+     * @param name        名称
+     * @param targetClass 类
+     * @return bean
+     */
+    private static Object registerPinnedAndGet(String name, Class<?> targetClass) {
+
+        Object registerBean = registerNewAndGet(name, targetClass);
+        if (StringUtils.hasText(name)) {
+            ContextEvictionTracker.pin(NAME_APPLICATION_MAP.get(name));
+        }
+        ContextEvictionTracker.pin(CLASS_APPLICATION_MAP.get(targetClass));
+        return registerBean;
+    }
+
+    /**
+     * 在测试用例边界关闭并移除需要淘汰的上下文，代理下次调用时重新创建
+     */
+    private static void evictContexts() {
+
+        for (AnnotationConfigApplicationContext evictedContext : ContextEvictionTracker.evict()) {
+            NAME_APPLICATION_MAP.values().removeIf(evictedContext::equals);
+            CLASS_APPLICATION_MAP.values().removeIf(evictedContext::equals);
+            try {
+                evictedContext.close();
+            } catch (Exception e) {
+                LOG.warn("关闭淘汰的上下文失败", e);
+            }
+        }
+    }
+
+    /**
+     * 获取bean依赖的配置类，排除条件不匹配的配置类
+     *
+     * @param name        名称
+     * @param targetClass 类
+     * @return 配置类
+     */
+    public static Set<Class<?>> getDependencyConfigurationClasses(String name, Class<?> targetClass) {
+
+        Set<Class<?>> dependencyConfigurationSet = new LinkedHashSet<>();
+        if (StringUtils.hasText(name)) {
+            dependencyConfigurationSet.addAll(BEAN_NAME_DEPENDENCY_CONFIGURATION_CLASSES.getOrDefault(name,
+                Collections.emptyList()
+            ));
+        }
+        if (Objects.nonNull(targetClass)) {
+            dependencyConfigurationSet.addAll(BEAN_CLASS_DEPENDENCY_CONFIGURATION_CLASSES.getOrDefault(targetClass,
+                Collections.emptyList()
+            ));
+        }
+        dependencyConfigurationSet.removeIf(dependencyConfiguration -> !ConditionOutcomeCache.matches(
+            dependencyConfiguration));
+        return dependencyConfigurationSet;
+    }
+
+    /**
+     * 只注册bean传递依赖的@Bean方法所在的配置类，并移除其余@Bean定义
+     * bean不由@Bean方法提供，或精简后的上下文无法提供bean时返回null，由调用方注册完整配置链
+     *
+     * @param name        名称
+     * @param targetClass 类
+     * @return bean
+     */
+    private static Object registerSelectedAndGet(String name, Class<?> targetClass) {
+
+        String selectionKey = name + "|" + targetClass.getName();
+        if (FAILED_SELECTION_SET.contains(selectionKey)) {
+            return null;
+        }
+        BeanProviderGraph.Selection selection = BeanProviderGraph.select(name, targetClass);
+        if (Objects.isNull(selection)) {
+            return null;
+        }
+        AnnotationConfigApplicationContext context = getNewLoaderContext();
+        registerConfigurationClasses(context, selection.getConfigurationClassList());
+        context.addBeanFactoryPostProcessor(selection.createFilterProcessor());
+        context.addBeanFactoryPostProcessor(new RequestedBeanLazyInitProcessor(name, targetClass));
+        try {
+            context.refresh();
+        } catch (Exception e) {
+            LOG.info("精简上下文装载失败，后续直接注册完整配置，name:{}，class：{}", name, targetClass.getName());
+            LOG.debug("精简上下文装载失败原因", e);
+            FAILED_SELECTION_SET.add(selectionKey);
+            context.close();
+            return null;
+        }
+        Object registerBean = tryGetBean(context, name, targetClass);
+        if (Objects.isNull(registerBean)) {
+            FAILED_SELECTION_SET.add(selectionKey);
+            context.close();
+            return null;
+        }
+        return cacheEvictableAndGet(context, name, targetClass);
+    }
+
+    /**
+     * 注册配置类，相同配置类已解析过时直接注册缓存的bean定义，跳过配置类解析
+     *
+     * @param context              上下文
+     * @param configurationClasses 配置类
+     */
+    private static void registerConfigurationClasses(AnnotationConfigApplicationContext context,
+                                                     Collection<Class<?>> configurationClasses) {
+
+        if (BeanDefinitionTemplateCache.apply(configurationClasses, context)) {
+            return;
+        }
+        for (Class<?> configurationClass : configurationClasses) {
+            context.register(configurationClass);
+        }
+        context.addBeanFactoryPostProcessor(BeanDefinitionTemplateCache.capture(configurationClasses, context));
+    }
+
+    /**
+     * 批量获取bean，同一加载器处理的请求合并为一次批量调用，无加载器处理的请求逐个注册
+     *
+     * @param requests bean获取请求
+     * @return bean，与请求顺序一致
+     */
+    public static List<Object> getOrCreateAll(List<BeanRequest> requests) {
+
+        NacosContextLoader.await();
+        Object[] beans = new Object[requests.size()];
+        List<TestContextLoader> loaders = Lists.newArrayList(ServiceLoader.load(TestContextLoader.class));
+        Map<TestContextLoader, List<Integer>> loaderIndexMap = new LinkedHashMap<>();
+        AnnotationConfigApplicationContext probeContext = getNewApplicationContext();
+        for (int i = 0; i < requests.size(); i++) {
+            BeanRequest request = requests.get(i);
+            beans[i] = getFromRegisterContext(request.getTargetClass(), request.getName());
+            if (Objects.nonNull(beans[i])) {
+                continue;
+            }
+            TestContextLoader loader = getTestContextLoader(loaders,
+                probeContext,
+                request.getName(),
+                request.getTargetClass(),
+                request.getAnnotations()
+            );
+            if (Objects.isNull(loader)) {
+                beans[i] = registerNewAndGet(request.getName(), request.getTargetClass(), request.getAnnotations());
+                continue;
+            }
+            loaderIndexMap.computeIfAbsent(loader, key -> Lists.newArrayList()).add(i);
+        }
+        for (Map.Entry<TestContextLoader, List<Integer>> loaderIndex : loaderIndexMap.entrySet()) {
+            List<BeanRequest> loaderRequests = Lists.newArrayListWithCapacity(loaderIndex.getValue().size());
+            for (Integer index : loaderIndex.getValue()) {
+                loaderRequests.add(requests.get(index));
+            }
+            List<Object> loaderBeans =
+                loaderIndex.getKey().getOrCreateAll(FastDynamicBeanLoadingTest::getNewLoaderContext, loaderRequests);
+            for (int i = 0; i < loaderBeans.size(); i++) {
+                beans[loaderIndex.getValue().get(i)] = loaderBeans.get(i);
+            }
+        }
+        return Arrays.asList(beans);
+    }
+
+    /**
+     * 异步获取bean，在异步加载器中执行
+     *
+     * @param name              名称
+     * @param targetClass       类
+     * @param annotationClasses 注解信息
+     * @return bean
+     */
+    public static CompletableFuture<Object> getOrCreateAsync(String name,
+                                                             Class<?> targetClass,
+                                                             Class<?>... annotationClasses) {
+
+        Object fromRegisterContext = getFromRegisterContext(targetClass, name);
+        if (Objects.nonNull(fromRegisterContext)) {
+            return CompletableFuture.completedFuture(fromRegisterContext);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            NacosContextLoader.await();
+            AnnotationConfigApplicationContext newApplicationContext = getNewLoaderContext();
+            TestContextLoader loader = getTestContextLoader(ServiceLoader.load(TestContextLoader.class),
+                newApplicationContext,
+                name,
+                targetClass,
+                annotationClasses
+            );
+            if (Objects.isNull(loader)) {
+                return CompletableFuture.completedFuture(registerNewAndGet(name, targetClass, annotationClasses));
+            }
+            return loader.getOrCreateAsync(newApplicationContext, name, targetClass, annotationClasses, ASYNC_LOADER);
+        }, ASYNC_LOADER).thenCompose(Function.identity());
+    }
+
+    /**
+     * 获取能处理bean的加载器
+     *
+     * @param loaders           加载器
+     * @param context           上下文
+     * @param name              名称
+     * @param targetClass       类
+     * @param annotationClasses 注解信息
+     * @return 加载器，不存在时返回null
+     */
+    private static TestContextLoader getTestContextLoader(Iterable<TestContextLoader> loaders,
+                                                          AnnotationConfigApplicationContext context,
+                                                          String name,
+                                                          Class<?> targetClass,
+                                                          Class<?>[] annotationClasses) {
+
+        for (TestContextLoader loader : loaders) {
+            if (loader.canHandle(context, name, targetClass, annotationClasses)) {
+                return loader;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 创建一个供加载器使用的新上下文，使用全局属性
+     *
+     * @return 上下文
+     */
+    private static AnnotationConfigApplicationContext getNewLoaderContext() {
+
+        AnnotationConfigApplicationContext newApplicationContext = getNewApplicationContext();
+        newApplicationContext.addBeanFactoryPostProcessor(new EmptyDependsOnProcessor());
+        for (PropertySource<?> propertySource : ALL_CONTEXT.getEnvironment().getPropertySources()) {
+            newApplicationContext.getEnvironment().getPropertySources().addLast(propertySource);
+        }
+        if (EmbeddedDataSourceLoader.isEnabled()) {
+            // 按需创建的上下文中的DataSource、JdbcTemplate等与mapper使用同一内嵌数据库
+            EmbeddedDataSourceLoader.replaceDataSource(newApplicationContext);
+        }
+        return newApplicationContext;
+    }
+
+    /**
+     * 刷新上下文
+     *
+     * @param context     上下文
+     * @param name        名称
+     * @param targetClass 类
+     * @return bean
+     */
+    public static Object refreshAndGet(AnnotationConfigApplicationContext context, String name, Class<?> targetClass) {
+
+        NacosContextLoader.await();
+        Object fromRegisterContext = getFromRegisterContext(targetClass, name);
+        if (Objects.nonNull(fromRegisterContext)) {
+            return fromRegisterContext;
+        }
+
+        refreshContext(context);
+        return cacheAndGet(context, name, targetClass);
+    }
+
+    /**
+     * 刷新上下文，使用全局属性
+     *
+     * @param context 上下文
+     */
+    public static void refreshContext(AnnotationConfigApplicationContext context) {
+
+        NacosContextLoader.await();
         context.addBeanFactoryPostProcessor(new EmptyDependsOnProcessor());
         for (PropertySource<?> propertySource : ALL_CONTEXT.getEnvironment().getPropertySources()) {
             context.getEnvironment().getPropertySources().addLast(propertySource);
         }
-
         context.refresh();
+    }
+
+    /**
+     * 从已刷新的上下文获取bean，并缓存上下文
+     *
+     * @param context     上下文
+     * @param name        名称
+     * @param targetClass 类
+     * @return bean
+     */
+    public static Object cacheAndGet(AnnotationConfigApplicationContext context, String name, Class<?> targetClass) {
+
         Object registerBean = tryGetBean(context, name, targetClass);
         if (StringUtils.hasText(name)) {
             NAME_APPLICATION_MAP.put(name, context);
@@ -1144,6 +1839,64 @@ public class FastDynamicBeanLoadingTest {
 
     }
 
+    /**
+     * 除请求的bean外延迟初始化，配置类中声明的其他单例只在被依赖时创建
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    private static class RequestedBeanLazyInitProcessor implements BeanFactoryPostProcessor {
+
+        /**
+         * 请求的bean名称
+         */
+        private final String requestedName;
+
+        /**
+         * 请求的bean类
+         */
+        private final Class<?> requestedClass;
+
+        /**
+         * 构造器
+         *
+         * @param requestedName  请求的bean名称
+         * @param requestedClass 请求的bean类
+         */
+        RequestedBeanLazyInitProcessor(String requestedName, Class<?> requestedClass) {
+
+            this.requestedName = requestedName;
+            this.requestedClass = requestedClass;
+        }
+
+        /**
+         * 装载上下文
+         *
+         * @param beanFactory the bean factory used by the application context
+         * @throws BeansException 失败时抛出
+         */
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+
+            Set<String> requestedBeanNames =
+                Sets.newHashSet(beanFactory.getBeanNamesForType(requestedClass, true, false));
+            if (StringUtils.hasText(requestedName)) {
+                requestedBeanNames.add(requestedName);
+            }
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                if (requestedBeanNames.contains(beanName)) {
+                    continue;
+                }
+                BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+                if (BeanDefinition.ROLE_INFRASTRUCTURE == beanDefinition.getRole()) {
+                    continue;
+                }
+                beanDefinition.setLazyInit(true);
+            }
+        }
+
+    }
+
     /**
      * 创建一个空实例
      *
@@ -1169,11 +1922,22 @@ public class FastDynamicBeanLoadingTest {
      */
     private static String getBeanName(Class<?> clazz) {
 
-        Qualifier qualifier = AnnotationUtils.findAnnotation(clazz, Qualifier.class);
+        return CLASS_BEAN_NAME_CACHE.computeIfAbsent(clazz, FastDynamicBeanLoadingTest::resolveBeanName);
+    }
+
+    /**
+     * 解析bean名称
+     *
+     * @param clazz 类
+     * @return bean名称
+     */
+    private static String resolveBeanName(Class<?> clazz) {
+
+        Qualifier qualifier = tryGetAnnotation(clazz, Qualifier.class);
         if (Objects.nonNull(qualifier) && StringUtils.hasText(qualifier.value())) {
             return qualifier.value();
         }
-        Component annotation = AnnotationUtils.findAnnotation(clazz, Component.class);
+        Component annotation = tryGetAnnotation(clazz, Component.class);
         if (Objects.isNull(annotation) || !StringUtils.hasText(annotation.value())) {
             return Introspector.decapitalize(ClassUtils.getShortName(clazz));
         }
@@ -1188,6 +1952,17 @@ public class FastDynamicBeanLoadingTest {
      */
     private static String getBeanName(Field field) {
 
+        return FIELD_BEAN_NAME_CACHE.computeIfAbsent(field, FastDynamicBeanLoadingTest::resolveBeanName);
+    }
+
+    /**
+     * 解析bean名称
+     *
+     * @param field 字段
+     * @return bean名称
+     */
+    private static String resolveBeanName(Field field) {
+
         Qualifier qualifier = AnnotationUtils.findAnnotation(field, Qualifier.class);
         if (Objects.nonNull(qualifier) && StringUtils.hasText(qualifier.value())) {
             return qualifier.value();
@@ -1218,6 +1993,17 @@ public class FastDynamicBeanLoadingTest {
      */
     private static String[] getBeanName(Method method) {
 
+        return METHOD_BEAN_NAME_CACHE.computeIfAbsent(method, FastDynamicBeanLoadingTest::resolveBeanName).clone();
+    }
+
+    /**
+     * 解析bean名称
+     *
+     * @param method 方法
+     * @return bean名称
+     */
+    private static String[] resolveBeanName(Method method) {
+
         Bean bean = AnnotationUtils.findAnnotation(method, Bean.class);
         if (Objects.nonNull(bean) && TestClassUtil.isArrayNotEmpty(bean.value())) {
             return bean.name();
@@ -1240,13 +2026,15 @@ public class FastDynamicBeanLoadingTest {
 
         if (StringUtils.hasText(beanName)) {
             for (AnnotationConfigApplicationContext app : NAME_APPLICATION_MAP.values()) {
-                if (app.containsBean(beanName)) {
+                if (app.isActive() && app.containsBean(beanName)) {
+                    ContextEvictionTracker.touch(app);
                     return app.getBean(beanName);
                 }
             }
         }
         for (AnnotationConfigApplicationContext app : CLASS_APPLICATION_MAP.values()) {
-            if (app.getBeanNamesForType(clazz).length > 0) {
+            if (app.isActive() && app.getBeanNamesForType(clazz).length > 0) {
+                ContextEvictionTracker.touch(app);
                 try {
                     return app.getBean(beanName);
                 } catch (Exception e) {
@@ -1267,11 +2055,18 @@ public class FastDynamicBeanLoadingTest {
      */
     private static <T extends Annotation> T tryGetAnnotation(Class<?> cls, Class<T> annotationCls) {
 
-        try {
-            return AnnotationUtils.findAnnotation(cls, annotationCls);
-        } catch (Throwable ignore) {
-            return null;
+        Map<Class<? extends Annotation>, Optional<Annotation>> annotationMap =
+            CLASS_ANNOTATION_CACHE.computeIfAbsent(cls, key -> new ConcurrentHashMap<>(8));
+        Optional<Annotation> annotation = annotationMap.get(annotationCls);
+        if (Objects.isNull(annotation)) {
+            try {
+                annotation = Optional.ofNullable(AnnotationUtils.findAnnotation(cls, annotationCls));
+            } catch (Throwable ignore) {
+                annotation = Optional.empty();
+            }
+            annotationMap.putIfAbsent(annotationCls, annotation);
         }
+        return annotationCls.cast(annotation.orElse(null));
     }
 
     /**
@@ -1282,19 +2077,12 @@ public class FastDynamicBeanLoadingTest {
      */
     private static boolean isAnnotationWithDubboReference(Field field) {
 
-        Class<? extends Annotation> dubboReferenceClass =
-            TestClassUtil.tryGetAnnotation("org.apache.dubbo.config.annotation.DubboReference");
-        if (Objects.nonNull(dubboReferenceClass) && field.isAnnotationPresent(dubboReferenceClass)) {
-            return true;
-        }
-        Class<? extends Annotation> dubboReferenceClass2 =
-            TestClassUtil.tryGetAnnotation("org.apache.dubbo.config.annotation.Reference");
-        if (Objects.nonNull(dubboReferenceClass2) && field.isAnnotationPresent(dubboReferenceClass2)) {
-            return true;
+        for (Class<? extends Annotation> dubboReferenceClass : CAPABILITIES.getDubboReferenceAnnotations()) {
+            if (field.isAnnotationPresent(dubboReferenceClass)) {
+                return true;
+            }
         }
-        Class<? extends Annotation> dubboReferenceClass3 =
-            TestClassUtil.tryGetAnnotation("com.alibaba.dubbo.config.annotation.Reference");
-        return Objects.nonNull(dubboReferenceClass3) && field.isAnnotationPresent(dubboReferenceClass3);
+        return false;
     }
 
     /**
@@ -1304,13 +2092,562 @@ public class FastDynamicBeanLoadingTest {
      */
     private static List<Class<? extends Annotation>> getDubboServiceClass() {
 
-        Class<? extends Annotation> dubboServiceClass =
-            TestClassUtil.tryGetAnnotation("org.apache.dubbo.config.annotation.DubboService");
-        Class<? extends Annotation> dubboServiceClass2 =
-            TestClassUtil.tryGetAnnotation("org.apache.dubbo.config.annotation.Service");
-        Class<? extends Annotation> dubboServiceClass3 =
-            TestClassUtil.tryGetAnnotation("com.alibaba.dubbo.config.annotation.Service");
-        return Arrays.asList(dubboServiceClass, dubboServiceClass2, dubboServiceClass3);
+        return CAPABILITIES.getDubboServiceAnnotations();
+    }
+
+    /**
+     * 按需获取bean，已装载的上下文中存在时直接返回，否则通过懒加载代理或新建上下文获取
+     *
+     * @param name        名称
+     * @param targetClass 类，为空时根据名称推断
+     * @return bean
+     */
+    private static Object getLazyBean(String name, Class<?> targetClass) {
+
+        if (StringUtils.hasText(name)) {
+            for (AnnotationConfigApplicationContext app : Iterables.concat(NAME_APPLICATION_MAP.values(),
+                CLASS_APPLICATION_MAP.values()
+            )) {
+                if (app.isActive()
+                    && app.containsBean(name)
+                    && (Objects.isNull(targetClass) || app.isTypeMatch(name, targetClass))) {
+                    // 返回的bean被直接持有，固定上下文避免被淘汰
+                    ContextEvictionTracker.pin(app);
+                    return app.getBean(name);
+                }
+            }
+        }
+        Class<?> beanClass = Objects.nonNull(targetClass) ? targetClass : getLazyBeanClass(name);
+        if (Objects.isNull(beanClass)) {
+            throw new NoSuchBeanDefinitionException(name);
+        }
+        String beanName = StringUtils.hasText(name) ? name : getBeanName(beanClass);
+        if (beanClass.isInterface() || beanClass.getName().startsWith(MAIN_CLASS_PACKAGE)) {
+            return createCglibProxy(beanName, beanClass);
+        }
+        return registerPinnedAndGet(beanName, beanClass);
+    }
+
+    /**
+     * 根据名称推断bean类型
+     *
+     * @param name 名称
+     * @return bean类型，无法推断时返回null
+     */
+    private static Class<?> getLazyBeanClass(String name) {
+
+        if (!StringUtils.hasText(name)) {
+            return null;
+        }
+        for (Class<?> createdClass : CREATED_CLASS_PROXY_MAP.keySet()) {
+            if (name.equals(getBeanName(createdClass))) {
+                return createdClass;
+            }
+        }
+        for (List<Class<?>> implClasses : BEAN_CLASS_IMPL_MAP.values()) {
+            for (Class<?> implClass : implClasses) {
+                if (name.equals(getBeanName(implClass))) {
+                    return implClass;
+                }
+            }
+        }
+        return BeanProviderGraph.getProvidedClass(name);
+    }
+
+    /**
+     * 获取已装载的上下文及已扫描的实现类中与类型匹配的bean名称
+     *
+     * @param type 类型
+     * @return bean名称
+     */
+    private static Set<String> getLazyBeanNamesForType(ResolvableType type) {
+
+        Set<String> names = Sets.newLinkedHashSet();
+        for (AnnotationConfigApplicationContext app : Iterables.concat(NAME_APPLICATION_MAP.values(),
+            CLASS_APPLICATION_MAP.values()
+        )) {
+            if (app.isActive()) {
+                names.addAll(Arrays.asList(app.getBeanNamesForType(type)));
+            }
+        }
+        Class<?> typeClass = type.resolve();
+        if (Objects.nonNull(typeClass)) {
+            for (Class<?> implClass : BEAN_CLASS_IMPL_MAP.getOrDefault(typeClass, Collections.emptyList())) {
+                names.add(getBeanName(implClass));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * 按需获取bean的bean工厂，供ApplicationContextAware静态工具类使用
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    private static class LazyBeanFactory extends DefaultListableBeanFactory {
+
+        /**
+         * 序列化版本
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 是否按需获取bean，上下文刷新完成后开启，避免刷新时执行已装载上下文中的处理器
+         */
+        private volatile boolean lazyLookup;
+
+        /**
+         * 开启按需获取bean
+         */
+        void enableLazyLookup() {
+
+            this.lazyLookup = true;
+        }
+
+        /**
+         * 获取bean
+         *
+         * @param name 名称
+         * @return bean
+         * @throws BeansException 失败时抛出
+         */
+        @Override
+        public Object getBean(String name) throws BeansException {
+
+            if (super.containsBean(name)) {
+                return super.getBean(name);
+            }
+            return getLazyBean(name, null);
+        }
+
+        /**
+         * 获取bean
+         *
+         * @param name         名称
+         * @param requiredType 类
+         * @param <T>          类型
+         * @return bean
+         * @throws BeansException 失败时抛出
+         */
+        @Override
+        public <T> T getBean(String name, Class<T> requiredType) throws BeansException {
+
+            if (super.containsBean(name)) {
+                return super.getBean(name, requiredType);
+            }
+            Object bean = getLazyBean(name, requiredType);
+            if (Objects.isNull(requiredType)) {
+                @SuppressWarnings("unchecked")
+                T typedBean = (T)bean;
+                return typedBean;
+            }
+            if (!requiredType.isInstance(bean)) {
+                throw new BeanNotOfRequiredTypeException(name, requiredType, bean.getClass());
+            }
+            return requiredType.cast(bean);
+        }
+
+        /**
+         * 获取bean
+         *
+         * @param requiredType 类
+         * @param <T>          类型
+         * @return bean
+         * @throws BeansException 失败时抛出
+         */
+        @Override
+        public <T> T getBean(Class<T> requiredType) throws BeansException {
+
+            String[] localNames = super.getBeanNamesForType(requiredType, true, true);
+            if (localNames.length == 1) {
+                return super.getBean(localNames[0], requiredType);
+            }
+            if (localNames.length > 1) {
+                throw new NoUniqueBeanDefinitionException(requiredType, localNames);
+            }
+            return requiredType.cast(getLazyBean(null, requiredType));
+        }
+
+        /**
+         * 获取bean，带参数时只能从已装载的上下文中创建
+         *
+         * @param requiredType 类
+         * @param args         参数
+         * @param <T>          类型
+         * @return bean
+         * @throws BeansException 失败时抛出
+         */
+        @Override
+        public <T> T getBean(Class<T> requiredType, Object... args) throws BeansException {
+
+            if (TestClassUtil.isArrayEmpty(args)) {
+                return getBean(requiredType);
+            }
+            if (super.getBeanNamesForType(requiredType, true, true).length > 0) {
+                return super.getBean(requiredType, args);
+            }
+            for (AnnotationConfigApplicationContext app : Iterables.concat(NAME_APPLICATION_MAP.values(),
+                CLASS_APPLICATION_MAP.values()
+            )) {
+                if (app.isActive() && app.getBeanNamesForType(requiredType).length > 0) {
+                    ContextEvictionTracker.pin(app);
+                    return app.getBean(requiredType, args);
+                }
+            }
+            throw new NoSuchBeanDefinitionException(requiredType);
+        }
+
+        /**
+         * 获取bean提供者
+         *
+         * @param requiredType 类
+         * @param <T>          类型
+         * @return bean提供者
+         */
+        @Override
+        public <T> ObjectProvider<T> getBeanProvider(Class<T> requiredType) {
+
+            return getBeanProvider(ResolvableType.forRawClass(requiredType));
+        }
+
+        /**
+         * 获取bean提供者
+         *
+         * @param requiredType 类型
+         * @param <T>          类型
+         * @return bean提供者
+         */
+        @Override
+        public <T> ObjectProvider<T> getBeanProvider(ResolvableType requiredType) {
+
+            if (!lazyLookup || Objects.isNull(requiredType.resolve())) {
+                return super.getBeanProvider(requiredType);
+            }
+            return new LazyBeanProvider<>(this, requiredType);
+        }
+
+        /**
+         * 获取类型对应的bean名称
+         *
+         * @param type                 类型
+         * @param includeNonSingletons 是否包含非单例
+         * @param allowEagerInit       是否允许提前初始化
+         * @return bean名称
+         */
+        @Override
+        public String[] getBeanNamesForType(ResolvableType type, boolean includeNonSingletons,
+                                            boolean allowEagerInit) {
+
+            String[] localNames = super.getBeanNamesForType(type, includeNonSingletons, allowEagerInit);
+            if (!lazyLookup) {
+                return localNames;
+            }
+            Set<String> names = Sets.newLinkedHashSet(Arrays.asList(localNames));
+            names.addAll(getLazyBeanNamesForType(type));
+            return names.toArray(new String[0]);
+        }
+
+        /**
+         * 获取类型对应的bean名称
+         *
+         * @param type                 类
+         * @param includeNonSingletons 是否包含非单例
+         * @param allowEagerInit       是否允许提前初始化
+         * @return bean名称
+         */
+        @Override
+        public String[] getBeanNamesForType(Class<?> type, boolean includeNonSingletons, boolean allowEagerInit) {
+
+            String[] localNames = super.getBeanNamesForType(type, includeNonSingletons, allowEagerInit);
+            if (!lazyLookup || Objects.isNull(type)) {
+                return localNames;
+            }
+            Set<String> names = Sets.newLinkedHashSet(Arrays.asList(localNames));
+            names.addAll(getLazyBeanNamesForType(ResolvableType.forRawClass(type)));
+            return names.toArray(new String[0]);
+        }
+
+        /**
+         * 获取类型对应的bean
+         *
+         * @param type                 类
+         * @param includeNonSingletons 是否包含非单例
+         * @param allowEagerInit       是否允许提前初始化
+         * @param <T>                  类型
+         * @return bean名称与bean
+         * @throws BeansException 失败时抛出
+         */
+        @Override
+        public <T> Map<String, T> getBeansOfType(Class<T> type, boolean includeNonSingletons, boolean allowEagerInit)
+            throws BeansException {
+
+            Map<String, T> beanMap = super.getBeansOfType(type, includeNonSingletons, allowEagerInit);
+            if (!lazyLookup || Objects.isNull(type)) {
+                return beanMap;
+            }
+            Map<String, T> lazyBeanMap = new LinkedHashMap<>(beanMap);
+            for (String name : getLazyBeanNamesForType(ResolvableType.forRawClass(type))) {
+                if (!lazyBeanMap.containsKey(name)) {
+                    lazyBeanMap.put(name, getBean(name, type));
+                }
+            }
+            return lazyBeanMap;
+        }
+
+        /**
+         * 是否存在bean
+         *
+         * @param name 名称
+         * @return 是否存在bean
+         */
+        @Override
+        public boolean containsBean(String name) {
+
+            if (super.containsBean(name) || Objects.nonNull(getLazyBeanClass(name))) {
+                return true;
+            }
+            for (AnnotationConfigApplicationContext app : Iterables.concat(NAME_APPLICATION_MAP.values(),
+                CLASS_APPLICATION_MAP.values()
+            )) {
+                if (app.containsBean(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+    /**
+     * 按需获取bean的提供者，解析时才通过按需获取bean的bean工厂查找
+     *
+     * @param <T> 类型
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    private static class LazyBeanProvider<T> implements ObjectProvider<T> {
+
+        /**
+         * bean工厂
+         */
+        private final LazyBeanFactory beanFactory;
+
+        /**
+         * 类型
+         */
+        private final ResolvableType requiredType;
+
+        /**
+         * 构造器
+         *
+         * @param beanFactory  bean工厂
+         * @param requiredType 类型
+         */
+        LazyBeanProvider(LazyBeanFactory beanFactory, ResolvableType requiredType) {
+
+            this.beanFactory = beanFactory;
+            this.requiredType = requiredType;
+        }
+
+        /**
+         * 获取bean
+         *
+         * @return bean
+         * @throws BeansException 失败时抛出
+         */
+        @Override
+        public T getObject() throws BeansException {
+
+            return getRequiredClass().cast(beanFactory.getBean(getRequiredClass()));
+        }
+
+        /**
+         * 获取bean
+         *
+         * @param args 参数
+         * @return bean
+         * @throws BeansException 失败时抛出
+         */
+        @Override
+        public T getObject(Object... args) throws BeansException {
+
+            return getRequiredClass().cast(beanFactory.getBean(getRequiredClass(), args));
+        }
+
+        /**
+         * 获取bean，不存在时返回null
+         *
+         * @return bean
+         * @throws BeansException 失败时抛出
+         */
+        @Override
+        public T getIfAvailable() throws BeansException {
+
+            try {
+                return getObject();
+            } catch (NoSuchBeanDefinitionException e) {
+                return null;
+            }
+        }
+
+        /**
+         * 获取唯一的bean，不存在或不唯一时返回null
+         *
+         * @return bean
+         * @throws BeansException 失败时抛出
+         */
+        @Override
+        public T getIfUnique() throws BeansException {
+
+            String[] names = beanFactory.getBeanNamesForType(requiredType);
+            if (names.length != 1) {
+                return null;
+            }
+            return beanFactory.getBean(names[0], getRequiredClass());
+        }
+
+        /**
+         * 获取全部bean
+         *
+         * @return bean
+         */
+        @Override
+        public Stream<T> stream() {
+
+            return Arrays.stream(beanFactory.getBeanNamesForType(requiredType))
+                .map(name -> beanFactory.getBean(name, getRequiredClass()));
+        }
+
+        /**
+         * 获取全部bean
+         *
+         * @return bean
+         */
+        @Override
+        public Stream<T> orderedStream() {
+
+            return stream();
+        }
+
+        /**
+         * 获取类型对应的类
+         *
+         * @return 类
+         */
+        @SuppressWarnings("unchecked")
+        private Class<T> getRequiredClass() {
+
+            return (Class<T>)requiredType.toClass();
+        }
+
+    }
+
+    /**
+     * 增强代理方法分派过滤器，生成代理类时对每个方法分类一次，调用时直接进入对应的处理器
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    private static class EnhanceDispatchFilter implements CallbackFilter {
+
+        /**
+         * 未重写的Object方法，直接执行Object实现
+         */
+        static final int OBJECT_METHOD = 0;
+
+        /**
+         * MyBatis-Plus getBaseMapper方法
+         */
+        static final int BASE_MAPPER_METHOD = 1;
+
+        /**
+         * 项目内对象方法，本地执行
+         */
+        static final int LOCAL_METHOD = 2;
+
+        /**
+         * 项目外对象方法，委托给装载的bean
+         */
+        static final int REMOTE_METHOD = 3;
+
+        /**
+         * 类
+         */
+        private final Class<?> targetClass;
+
+        /**
+         * 是否项目内对象
+         */
+        private final boolean isMainPackage;
+
+        /**
+         * 方法分类缓存
+         */
+        private final Map<Method, Integer> dispatchCache = new ConcurrentHashMap<>(32);
+
+        /**
+         * 构造器
+         *
+         * @param targetClass   类
+         * @param isMainPackage 是否项目内对象
+         */
+        EnhanceDispatchFilter(Class<?> targetClass, boolean isMainPackage) {
+
+            this.targetClass = targetClass;
+            this.isMainPackage = isMainPackage;
+        }
+
+        /**
+         * 方法分类
+         *
+         * @param method 方法
+         * @return 处理器下标
+         */
+        @Override
+        public int accept(Method method) {
+
+            return dispatchCache.computeIfAbsent(method, key -> {
+                if (Object.class.equals(key.getDeclaringClass())) {
+                    return OBJECT_METHOD;
+                }
+                if (MyBatisContextLoader.isGetBaseMapperMethod(targetClass, key.getName())) {
+                    return BASE_MAPPER_METHOD;
+                }
+                return isMainPackage ? LOCAL_METHOD : REMOTE_METHOD;
+            });
+        }
+
+        /**
+         * 相同类及分类规则的过滤器相等，使增强器可复用生成的代理类
+         *
+         * @param o 对象
+         * @return 是否相等
+         */
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EnhanceDispatchFilter)) {
+                return false;
+            }
+            EnhanceDispatchFilter that = (EnhanceDispatchFilter)o;
+            return isMainPackage == that.isMainPackage && targetClass.equals(that.targetClass);
+        }
+
+        /**
+         * 哈希值
+         *
+         * @return 哈希值
+         */
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(targetClass, isMainPackage);
+        }
+
     }
 
     /**
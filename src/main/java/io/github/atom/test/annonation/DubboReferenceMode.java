@@ -0,0 +1,26 @@
+package io.github.atom.test.annonation;
+
+/**
+ * Dubbo依赖解析模式
+ *
+ * @author Zhang Kangkang
+ * @version 1.0
+ */
+public enum DubboReferenceMode {
+
+    /**
+     * 通过注册中心引用远程服务
+     */
+    REMOTE,
+
+    /**
+     * 优先使用项目内的接口实现，否则回放录制的响应，不访问注册中心
+     */
+    LOCAL,
+
+    /**
+     * 优先使用项目内的接口实现，否则回放录制的响应，未录制时调用远程服务并录制
+     */
+    RECORD
+
+}
@@ -35,6 +35,72 @@ public @interface DynamicBeanLoading {
      */
     boolean nacosEnabled() default false;
 
+    /**
+     * 是否在装载完成后批量引用所有Dubbo依赖
+     *
+     * @return 是否批量引用Dubbo依赖
+     */
+    boolean dubboBatchRefer() default false;
+
+    /**
+     * Dubbo依赖解析模式，LOCAL/RECORD模式下优先使用项目内实现，否则回放录制文件
+     * 录制目录可通过atom-test.dubbo.recording-dir属性指定
+     *
+     * @return Dubbo依赖解析模式
+     */
+    DubboReferenceMode dubboMode() default DubboReferenceMode.REMOTE;
+
+    /**
+     * 是否按需解析mapper xml，只解析实际获取的mapper对应的xml
+     *
+     * @return 是否按需解析mapper xml
+     */
+    boolean lazyMapperXml() default false;
+
+    /**
+     * 是否使用内嵌H2数据库（MySQL兼容模式）代替MyBatis数据源，需在测试classpath中引入H2
+     *
+     * @return 是否使用内嵌数据库
+     */
+    boolean embeddedDatabase() default false;
+
+    /**
+     * 内嵌数据库初始化脚本（classpath路径），不存在的脚本将被忽略
+     *
+     * @return 内嵌数据库初始化脚本
+     */
+    String[] embeddedDatabaseScripts() default {"schema.sql", "data.sql"};
+
+    /**
+     * 是否使用进程内Redis替身代替项目配置的Redis服务，数据仅保存在内存中
+     * 仅支持常用的string/key/hash/list/set命令，事务（MULTI/EXEC）、SCAN、有序集合、Lua脚本及发布订阅命令会返回不支持错误
+     *
+     * @return 是否使用进程内Redis替身
+     */
+    boolean embeddedRedis() default false;
+
+    /**
+     * 是否延迟注入项目内对象的依赖，对象方法首次执行时才创建其字段依赖的代理
+     *
+     * @return 是否延迟注入依赖
+     */
+    boolean lazyFieldProxy() default false;
+
+    /**
+     * 按需创建的上下文数量上限，超出时在测试用例执行前关闭最久未使用的上下文，不大于0时不限制
+     * 上一个测试用例访问过的上下文及bean被直接持有的上下文不会被淘汰，被淘汰上下文中的bean在代理下次调用时重新创建
+     *
+     * @return 上下文数量上限
+     */
+    int maxContexts() default 0;
+
+    /**
+     * 按需创建的上下文最大空闲时间（秒），每个测试用例执行前关闭超时未使用的上下文，不大于0时不限制
+     *
+     * @return 上下文最大空闲时间
+     */
+    long contextIdleSeconds() default 0;
+
     /**
      * 测试用例运行所需装载的静态类
      *
@@ -0,0 +1,70 @@
+package io.github.atom.test.loader;
+
+/**
+ * bean获取请求
+ *
+ * @author Zhang Kangkang
+ * @version 1.0
+ */
+public class BeanRequest {
+
+    /**
+     * beanName
+     */
+    private final String name;
+
+    /**
+     * beanClass
+     */
+    private final Class<?> targetClass;
+
+    /**
+     * bean依赖注解
+     */
+    private final Class<?>[] annotations;
+
+    /**
+     * 构造器
+     *
+     * @param name        beanName
+     * @param targetClass beanClass
+     * @param annotations bean依赖注解
+     */
+    public BeanRequest(String name, Class<?> targetClass, Class<?>... annotations) {
+
+        this.name = name;
+        this.targetClass = targetClass;
+        this.annotations = annotations;
+    }
+
+    /**
+     * 获取beanName
+     *
+     * @return beanName
+     */
+    public String getName() {
+
+        return name;
+    }
+
+    /**
+     * 获取beanClass
+     *
+     * @return beanClass
+     */
+    public Class<?> getTargetClass() {
+
+        return targetClass;
+    }
+
+    /**
+     * 获取bean依赖注解
+     *
+     * @return bean依赖注解
+     */
+    public Class<?>[] getAnnotations() {
+
+        return annotations;
+    }
+
+}
@@ -1,20 +1,28 @@
 package io.github.atom.test.loader;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.dubbo.config.ApplicationConfig;
 import org.apache.dubbo.config.ConsumerConfig;
 import org.apache.dubbo.config.ReferenceConfig;
 import org.apache.dubbo.config.RegistryConfig;
-import org.apache.dubbo.config.ProtocolConfig;
 import org.apache.dubbo.config.annotation.DubboReference;
 import org.apache.dubbo.config.bootstrap.DubboBootstrap;
 import org.apache.dubbo.config.bootstrap.builders.ReferenceBuilder;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.core.env.ConfigurableEnvironment;
 
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Dubbo上下文装载器
@@ -25,9 +33,14 @@ import java.util.Objects;
 public class DubboContextLoader implements TestContextLoader {
 
     /**
-     * dubbo简单缓存
+     * dubbo引用缓存（接口全限定名 + version + group为key）
      */
-    private static final Map<String, Object> DUBBO_SIMPLE_CACHE = new HashMap<>();
+    private static final Map<String, CompletableFuture<Object>> DUBBO_REFERENCE_CACHE = new ConcurrentHashMap<>(16);
+
+    /**
+     * 消费端bootstrap是否已启动
+     */
+    private static boolean CONSUMER_BOOTSTRAP_STARTED = false;
 
     /**
      * 判断能否处理bean
@@ -70,19 +83,179 @@ public class DubboContextLoader implements TestContextLoader {
                               Class<?> targetClass,
                               Class<?>[] annotations) {
 
-        Object referenceConfigCache = DUBBO_SIMPLE_CACHE.get(targetClass.getSimpleName());
-        if (Objects.nonNull(referenceConfigCache)) {
-            return referenceConfigCache;
-        }
+        ConfigurableEnvironment env = context.getEnvironment();
+        return referAll(env, Collections.singletonList(targetClass)).get(0).join();
+    }
+
+    /**
+     * 异步获取bean，引用在线程池中创建，已缓存的引用直接返回
+     *
+     * @param context     上下文
+     * @param name        beanName
+     * @param targetClass beanClass
+     * @param annotations bean依赖注解
+     * @param executor    线程池
+     * @return bean
+     */
+    @Override
+    public CompletableFuture<Object> getOrCreateAsync(AnnotationConfigApplicationContext context,
+                                                      String name,
+                                                      Class<?> targetClass,
+                                                      Class<?>[] annotations,
+                                                      Executor executor) {
 
-        ReferenceConfig reference = ReferenceBuilder.newBuilder().interfaceClass(targetClass).build();
         ConfigurableEnvironment env = context.getEnvironment();
+        CompletableFuture<Object> referenceCache = DUBBO_REFERENCE_CACHE.get(getReferenceKey(env, targetClass));
+        if (Objects.nonNull(referenceCache)) {
+            return referenceCache;
+        }
+        return CompletableFuture.supplyAsync(() -> referAll(env, Collections.singletonList(targetClass)).get(0),
+            executor
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * 批量获取bean，未缓存的接口在同一批次中引用
+     *
+     * @param contextSupplier 未刷新的上下文
+     * @param requests        bean获取请求
+     * @return bean，与请求顺序一致
+     */
+    @Override
+    public List<Object> getOrCreateAll(Supplier<AnnotationConfigApplicationContext> contextSupplier,
+                                       List<BeanRequest> requests) {
+
+        List<Class<?>> interfaceClassList = Lists.newArrayListWithCapacity(requests.size());
+        for (BeanRequest request : requests) {
+            interfaceClassList.add(request.getTargetClass());
+        }
+        List<CompletableFuture<Object>> referenceFutureList =
+            referAll(contextSupplier.get().getEnvironment(), interfaceClassList);
+        List<Object> beans = Lists.newArrayListWithCapacity(referenceFutureList.size());
+        for (CompletableFuture<Object> referenceFuture : referenceFutureList) {
+            beans.add(referenceFuture.join());
+        }
+        return beans;
+    }
+
+    /**
+     * 批量引用dubbo服务，未缓存的接口在同一批次中注册到消费端bootstrap
+     *
+     * @param env              环境
+     * @param interfaceClasses 接口类
+     * @return 引用结果，与接口类顺序一致
+     */
+    public static List<CompletableFuture<Object>> referAll(ConfigurableEnvironment env,
+                                                           Collection<Class<?>> interfaceClasses) {
+
+        List<CompletableFuture<Object>> referenceFutureList = Lists.newArrayList();
+        Map<ReferenceConfig<?>, CompletableFuture<Object>> referenceFutureMap = new LinkedHashMap<>();
+        for (Class<?> interfaceClass : interfaceClasses) {
+            CompletableFuture<Object> referenceFuture = new CompletableFuture<>();
+            CompletableFuture<Object> referenceCache =
+                DUBBO_REFERENCE_CACHE.putIfAbsent(getReferenceKey(env, interfaceClass), referenceFuture);
+            if (Objects.nonNull(referenceCache)) {
+                referenceFutureList.add(referenceCache);
+                continue;
+            }
+            referenceFutureList.add(referenceFuture);
+            // version、group与引用标识取值一致，不继承首次启动时的消费端配置
+            ReferenceConfig<?> reference = ReferenceBuilder.newBuilder()
+                .interfaceClass(interfaceClass)
+                .version(getConsumerVersion(env))
+                .group(getConsumerGroup(env))
+                .build();
+            referenceFutureMap.put(reference, referenceFuture);
+        }
+        if (referenceFutureMap.isEmpty()) {
+            return referenceFutureList;
+        }
+        try {
+            addReferences(env, Lists.newArrayList(referenceFutureMap.keySet()));
+        } catch (RuntimeException e) {
+            for (ReferenceConfig<?> reference : referenceFutureMap.keySet()) {
+                failReference(env, reference, referenceFutureMap.get(reference), e);
+            }
+            return referenceFutureList;
+        }
+        for (Map.Entry<ReferenceConfig<?>, CompletableFuture<Object>> referenceEntry : referenceFutureMap.entrySet()) {
+            try {
+                referenceEntry.getValue().complete(referenceEntry.getKey().get());
+            } catch (RuntimeException e) {
+                failReference(env, referenceEntry.getKey(), referenceEntry.getValue(), e);
+            }
+        }
+        return referenceFutureList;
+    }
+
+    /**
+     * 引用失败，移除缓存以便下次重试
+     *
+     * @param env             环境
+     * @param reference       dubbo引用
+     * @param referenceFuture 引用结果
+     * @param e               异常
+     */
+    private static void failReference(ConfigurableEnvironment env,
+                                      ReferenceConfig<?> reference,
+                                      CompletableFuture<Object> referenceFuture,
+                                      RuntimeException e) {
+
+        DUBBO_REFERENCE_CACHE.remove(getReferenceKey(env, reference.getInterfaceClass()), referenceFuture);
+        referenceFuture.completeExceptionally(e);
+    }
+
+    /**
+     * 获取dubbo引用标识
+     *
+     * @param env         环境
+     * @param targetClass 接口类
+     * @return dubbo引用标识
+     */
+    private static String getReferenceKey(ConfigurableEnvironment env, Class<?> targetClass) {
+
+        return targetClass.getName() + ":" + getConsumerVersion(env) + ":" + getConsumerGroup(env);
+    }
+
+    /**
+     * 获取消费端服务版本
+     *
+     * @param env 环境
+     * @return 服务版本，未配置时为空字符串
+     */
+    private static String getConsumerVersion(ConfigurableEnvironment env) {
+
+        return env.getProperty("dubbo.consumer.version", "");
+    }
+
+    /**
+     * 获取消费端服务分组
+     *
+     * @param env 环境
+     * @return 服务分组，未配置时为空字符串
+     */
+    private static String getConsumerGroup(ConfigurableEnvironment env) {
+
+        return env.getProperty("dubbo.consumer.group", "");
+    }
+
+    /**
+     * 添加dubbo引用，消费端bootstrap只在首次成功启动前初始化，启动失败时重置
+     *
+     * @param env        环境
+     * @param references dubbo引用
+     */
+    private static synchronized void addReferences(ConfigurableEnvironment env, List<ReferenceConfig> references) {
+
+        if (CONSUMER_BOOTSTRAP_STARTED) {
+            DubboBootstrap.getInstance().references(references);
+            return;
+        }
 
         ApplicationConfig applicationConfig = new ApplicationConfig();
         applicationConfig.setName(env.getProperty("dubbo.application.name"));
 
         ConsumerConfig consumerConfig = new ConsumerConfig();
-        consumerConfig.setVersion(env.getProperty("dubbo.consumer.version"));
         consumerConfig.setTimeout(Integer.parseInt(Objects.requireNonNull(env.getProperty("dubbo.consumer.timeout"))));
         consumerConfig.setCheck(Boolean.parseBoolean(env.getProperty("dubbo.consumer.check")));
 
@@ -94,19 +267,20 @@ public class DubboContextLoader implements TestContextLoader {
         registryConfig.setParameters(paramaeters);
         registryConfig.setVersion(env.getProperty("dubbo.provider.version"));
 
-        DubboBootstrap.getInstance()
-            .application(applicationConfig)
-            .registry(registryConfig)
-            .protocol(new ProtocolConfig(
-                env.getProperty("dubbo.protocol.name"),
-                Integer.parseInt(Objects.requireNonNull(env.getProperty("dubbo.protocol.port")))
-            ))
-            .consumer(consumerConfig)
-            .reference(reference)
-            .start();
-        Object referenceObject = reference.get();
-        DUBBO_SIMPLE_CACHE.put(targetClass.getSimpleName(), referenceObject);
-        return referenceObject;
+        // 仅作为消费端启动，不配置协议，不暴露服务
+        try {
+            DubboBootstrap.getInstance()
+                .application(applicationConfig)
+                .registry(registryConfig)
+                .consumer(consumerConfig)
+                .references(references)
+                .start();
+        } catch (RuntimeException e) {
+            // 启动失败时重置bootstrap，下次引用重新配置，避免重复添加应用及注册中心配置
+            DubboBootstrap.reset();
+            throw e;
+        }
+        CONSUMER_BOOTSTRAP_STARTED = true;
     }
 
 }
@@ -0,0 +1,446 @@
+package io.github.atom.test.loader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Dubbo录制回放处理器，按方法和参数将远程响应录制到文件，后续直接从文件回放
+ *
+ * @author Zhang Kangkang
+ * @version 1.0
+ */
+public class DubboReplayInvocationHandler implements InvocationHandler {
+
+    /**
+     * 日志
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(DubboReplayInvocationHandler.class);
+
+    /**
+     * 录制文件后缀
+     */
+    private static final String RECORDING_SUFFIX = ".ser";
+
+    /**
+     * 参数标识计算的最大深度
+     */
+    private static final int MAX_KEY_DEPTH = 32;
+
+    /**
+     * 接口类
+     */
+    private final Class<?> interfaceClass;
+
+    /**
+     * 录制目录
+     */
+    private final Path recordingDir;
+
+    /**
+     * 远程调用处理器，为空时只回放不录制
+     */
+    private final InvocationHandler remoteHandler;
+
+    /**
+     * 构造器
+     *
+     * @param interfaceClass 接口类
+     * @param recordingDir   录制目录
+     * @param remoteHandler  远程调用处理器，为空时只回放不录制
+     */
+    public DubboReplayInvocationHandler(Class<?> interfaceClass, String recordingDir, InvocationHandler remoteHandler) {
+
+        this.interfaceClass = interfaceClass;
+        this.recordingDir = Paths.get(recordingDir, interfaceClass.getName());
+        this.remoteHandler = remoteHandler;
+    }
+
+    /**
+     * 回放或录制调用
+     *
+     * @param proxy  代理对象
+     * @param method 方法
+     * @param args   参数
+     * @return 返回值
+     * @throws Throwable 回放异常或远程调用异常
+     */
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+        if (Object.class.equals(method.getDeclaringClass())) {
+            return invokeObjectMethod(proxy, method, args);
+        }
+        Path recordingFile = recordingDir.resolve(method.getName() + "-" + getRecordingKey(method, args)
+            + RECORDING_SUFFIX);
+        if (Files.exists(recordingFile)) {
+            return replay(readRecording(recordingFile));
+        }
+        if (Objects.isNull(remoteHandler)) {
+            throw new IllegalStateException(String.format("no dubbo recording found, interface:%s，method:%s，file:%s",
+                interfaceClass.getName(),
+                method.getName(),
+                recordingFile
+            ));
+        }
+        Object result;
+        try {
+            result = remoteHandler.invoke(proxy, method, args);
+        } catch (InvocationTargetException e) {
+            writeRecording(recordingFile, new Recording(null, e.getTargetException()));
+            throw e.getTargetException();
+        }
+        writeRecording(recordingFile, new Recording(result, null));
+        return result;
+    }
+
+    /**
+     * 处理Object方法
+     *
+     * @param proxy  代理对象
+     * @param method 方法
+     * @param args   参数
+     * @return 返回值
+     */
+    private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return "DubboReplayProxy(" + interfaceClass.getName() + ")";
+        }
+    }
+
+    /**
+     * 回放录制结果
+     *
+     * @param recording 录制结果
+     * @return 返回值
+     * @throws Throwable 录制的异常
+     */
+    private static Object replay(Recording recording) throws Throwable {
+
+        if (Objects.nonNull(recording.getThrowable())) {
+            throw recording.getThrowable();
+        }
+        return recording.getResult();
+    }
+
+    /**
+     * 获取录制标识，参数可序列化时按序列化内容计算，否则按类名及字段内容计算
+     *
+     * @param method 方法
+     * @param args   参数
+     * @return 录制标识
+     */
+    private static String getRecordingKey(Method method, Object[] args) {
+
+        ByteArrayOutputStream keyStream = new ByteArrayOutputStream();
+        byte[] signature = method.toGenericString().getBytes(StandardCharsets.UTF_8);
+        keyStream.write(signature, 0, signature.length);
+        ByteArrayOutputStream argsStream = new ByteArrayOutputStream();
+        byte[] argsBytes;
+        try (ObjectOutputStream objectStream = new ObjectOutputStream(argsStream)) {
+            objectStream.writeObject(args);
+            objectStream.flush();
+            argsBytes = argsStream.toByteArray();
+        } catch (IOException e) {
+            StringBuilder argsKey = new StringBuilder();
+            appendStableKey(argsKey, args, Collections.newSetFromMap(new IdentityHashMap<>()), 0);
+            argsBytes = argsKey.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        keyStream.write(argsBytes, 0, argsBytes.length);
+        return DigestUtils.md5DigestAsHex(keyStream.toByteArray());
+    }
+
+    /**
+     * 追加参数的稳定标识，不依赖对象哈希码，按类名及字段递归计算，集合及Map按元素标识排序
+     *
+     * @param key     标识
+     * @param value   参数
+     * @param visited 已访问对象
+     * @param depth   深度
+     */
+    private static void appendStableKey(StringBuilder key, Object value, Set<Object> visited, int depth) {
+
+        if (Objects.isNull(value)) {
+            key.append("null");
+            return;
+        }
+        Class<?> valueClass = value.getClass();
+        if (isValueType(value)) {
+            key.append(valueClass.getName()).append(':').append(value);
+            return;
+        }
+        if (value instanceof Class) {
+            key.append("class:").append(((Class<?>)value).getName());
+            return;
+        }
+        if (value instanceof Date) {
+            key.append(valueClass.getName()).append(':').append(((Date)value).getTime());
+            return;
+        }
+        if (depth > MAX_KEY_DEPTH || !visited.add(value)) {
+            throw new IllegalArgumentException("dubbo recording argument is too deep or cyclic:" + valueClass.getName());
+        }
+        try {
+            if (valueClass.isArray()) {
+                List<String> elementKeys = new ArrayList<>();
+                for (int i = 0; i < Array.getLength(value); i++) {
+                    elementKeys.add(getStableKey(Array.get(value, i), visited, depth));
+                }
+                key.append(valueClass.getName()).append(elementKeys);
+                return;
+            }
+            if (value instanceof Collection) {
+                List<String> elementKeys = new ArrayList<>();
+                for (Object element : (Collection<?>)value) {
+                    elementKeys.add(getStableKey(element, visited, depth));
+                }
+                if (!(value instanceof List)) {
+                    Collections.sort(elementKeys);
+                }
+                key.append(valueClass.getName()).append(elementKeys);
+                return;
+            }
+            if (value instanceof Map) {
+                List<String> entryKeys = new ArrayList<>();
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet()) {
+                    entryKeys.add(getStableKey(entry.getKey(), visited, depth) + "="
+                        + getStableKey(entry.getValue(), visited, depth));
+                }
+                Collections.sort(entryKeys);
+                key.append(valueClass.getName()).append(entryKeys);
+                return;
+            }
+            if (valueClass.getName().startsWith("java.") || valueClass.getName().startsWith("javax.")) {
+                throw new IllegalArgumentException("unsupported dubbo recording argument type:" + valueClass.getName());
+            }
+            key.append(valueClass.getName()).append('{');
+            for (Field field : getKeyFields(valueClass)) {
+                field.setAccessible(true);
+                key.append(field.getDeclaringClass().getName()).append('.').append(field.getName()).append('=');
+                appendStableKey(key, field.get(value), visited, depth + 1);
+                key.append(';');
+            }
+            key.append('}');
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("unsupported dubbo recording argument type:" + valueClass.getName(), e);
+        } finally {
+            visited.remove(value);
+        }
+    }
+
+    /**
+     * 获取元素的稳定标识
+     *
+     * @param value   元素
+     * @param visited 已访问对象
+     * @param depth   深度
+     * @return 稳定标识
+     */
+    private static String getStableKey(Object value, Set<Object> visited, int depth) {
+
+        StringBuilder key = new StringBuilder();
+        appendStableKey(key, value, visited, depth + 1);
+        return key.toString();
+    }
+
+    /**
+     * 是否为值类型，值类型的字符串内容稳定
+     *
+     * @param value 参数
+     * @return 是否为值类型
+     */
+    private static boolean isValueType(Object value) {
+
+        return value instanceof CharSequence
+            || value instanceof Number
+            || value instanceof Boolean
+            || value instanceof Character
+            || value instanceof Enum
+            || value instanceof TemporalAccessor
+            || value instanceof UUID;
+    }
+
+    /**
+     * 获取参与标识计算的字段，排除静态及transient字段，按声明类及名称排序
+     *
+     * @param valueClass 类
+     * @return 字段
+     */
+    private static List<Field> getKeyFields(Class<?> valueClass) {
+
+        List<Field> keyFields = new ArrayList<>();
+        for (Class<?> current = valueClass; Objects.nonNull(current) && !Object.class.equals(current);
+             current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+                    continue;
+                }
+                keyFields.add(field);
+            }
+        }
+        keyFields.sort(Comparator.comparing((Field field) -> field.getDeclaringClass().getName())
+            .thenComparing(Field::getName));
+        return keyFields;
+    }
+
+    /**
+     * 读取录制结果
+     *
+     * @param recordingFile 录制文件
+     * @return 录制结果
+     * @throws IOException            读取失败时抛出
+     * @throws ClassNotFoundException 类不存在时抛出
+     */
+    private static Recording readRecording(Path recordingFile) throws IOException, ClassNotFoundException {
+
+        try (InputStream inputStream = Files.newInputStream(recordingFile);
+             ObjectInputStream objectStream = new ObjectInputStream(inputStream)) {
+            return (Recording)objectStream.readObject();
+        }
+    }
+
+    /**
+     * 写入录制结果，先写入临时文件再原子移动到录制文件，录制失败时只记录日志，不影响远程调用结果
+     *
+     * @param recordingFile 录制文件
+     * @param recording     录制结果
+     */
+    private static void writeRecording(Path recordingFile, Recording recording) {
+
+        ByteArrayOutputStream recordingStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectStream = new ObjectOutputStream(recordingStream)) {
+            objectStream.writeObject(recording);
+        } catch (IOException e) {
+            LOG.warn("dubbo调用结果无法序列化，跳过录制，file:{}", recordingFile, e);
+            return;
+        }
+        Path tempFile = null;
+        try {
+            Files.createDirectories(recordingFile.getParent());
+            tempFile = Files.createTempFile(recordingFile.getParent(), recordingFile.getFileName().toString(), ".tmp");
+            try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                recordingStream.writeTo(outputStream);
+            }
+            try {
+                Files.move(tempFile, recordingFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, recordingFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOG.warn("写入dubbo录制文件失败，file:{}", recordingFile, e);
+            deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * 删除文件，失败时忽略
+     *
+     * @param file 文件
+     */
+    private static void deleteQuietly(Path file) {
+
+        if (Objects.isNull(file)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignore) {
+        }
+    }
+
+    /**
+     * 录制结果
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    static class Recording implements Serializable {
+
+        /**
+         * 序列化版本
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 返回值
+         */
+        private final Object result;
+
+        /**
+         * 异常
+         */
+        private final Throwable throwable;
+
+        /**
+         * 构造器
+         *
+         * @param result    返回值
+         * @param throwable 异常
+         */
+        Recording(Object result, Throwable throwable) {
+
+            this.result = result;
+            this.throwable = throwable;
+        }
+
+        /**
+         * 获取返回值
+         *
+         * @return 返回值
+         */
+        public Object getResult() {
+
+            return result;
+        }
+
+        /**
+         * 获取异常
+         *
+         * @return 异常
+         */
+        public Throwable getThrowable() {
+
+            return throwable;
+        }
+
+    }
+
+}
@@ -0,0 +1,349 @@
+package io.github.atom.test.loader;
+
+import io.github.atom.test.utils.TestClassUtil;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
+import org.springframework.cglib.proxy.Callback;
+import org.springframework.cglib.proxy.CallbackFilter;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.cglib.proxy.MethodInterceptor;
+import org.springframework.cglib.proxy.NoOp;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Objects;
+
+/**
+ * 内嵌数据库装载器，以H2（MySQL兼容模式）代替项目配置的数据源
+ * 初始化脚本执行后的数据库文件作为快照缓存在target目录，脚本不变时后续运行直接复制快照
+ *
+ * @author Zhang Kangkang
+ * @version 1.0
+ */
+public final class EmbeddedDataSourceLoader {
+
+    /**
+     * 快照目录
+     */
+    private static final String SNAPSHOT_DIR = "target/atom-test-h2";
+
+    /**
+     * H2数据库文件后缀
+     */
+    private static final String H2_FILE_SUFFIX = ".mv.db";
+
+    /**
+     * H2跟踪文件后缀
+     */
+    private static final String H2_TRACE_FILE_SUFFIX = ".trace.db";
+
+    /**
+     * H2连接参数
+     */
+    private static final String H2_URL_OPTIONS = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE"
+        + ";DB_CLOSE_DELAY=-1";
+
+    /**
+     * 数据源包装类方法分派，DataSource接口方法委托给内嵌数据源，其余方法执行原实现
+     */
+    private static final CallbackFilter DATA_SOURCE_METHOD_FILTER = method -> isDataSourceMethod(method) ? 0 : 1;
+
+    /**
+     * 是否使用内嵌数据库
+     */
+    private static volatile boolean ENABLED = false;
+
+    /**
+     * 初始化脚本
+     */
+    private static volatile String[] SCRIPTS = new String[0];
+
+    /**
+     * 内嵌数据源
+     */
+    private static volatile DataSource EMBEDDED_DATA_SOURCE;
+
+    /**
+     * 构造器
+     */
+    private EmbeddedDataSourceLoader() {
+
+        throw new UnsupportedOperationException("loader cannot be instantiated");
+    }
+
+    /**
+     * 配置内嵌数据库
+     *
+     * @param enabled 是否使用内嵌数据库
+     * @param scripts 初始化脚本（classpath路径）
+     */
+    public static void configure(boolean enabled, String[] scripts) {
+
+        ENABLED = enabled;
+        SCRIPTS = Objects.isNull(scripts) ? new String[0] : scripts;
+    }
+
+    /**
+     * 是否使用内嵌数据库
+     *
+     * @return 是否使用内嵌数据库
+     */
+    public static boolean isEnabled() {
+
+        return ENABLED;
+    }
+
+    /**
+     * 上下文中所有DataSource在实例化前替换为内嵌数据源，不会连接项目配置的数据库，重复调用只添加一次处理器
+     *
+     * @param context 上下文
+     */
+    public static void replaceDataSource(AnnotationConfigApplicationContext context) {
+
+        ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+        if (beanFactory instanceof AbstractBeanFactory) {
+            for (BeanPostProcessor beanPostProcessor : ((AbstractBeanFactory)beanFactory).getBeanPostProcessors()) {
+                if (beanPostProcessor instanceof EmbeddedDataSourceProcessor) {
+                    return;
+                }
+            }
+        }
+        beanFactory.addBeanPostProcessor(new EmbeddedDataSourceProcessor());
+    }
+
+    /**
+     * 获取内嵌数据源
+     *
+     * @return 内嵌数据源
+     */
+    public static DataSource getDataSource() {
+
+        if (Objects.nonNull(EMBEDDED_DATA_SOURCE)) {
+            return EMBEDDED_DATA_SOURCE;
+        }
+        synchronized (EmbeddedDataSourceLoader.class) {
+            if (Objects.nonNull(EMBEDDED_DATA_SOURCE)) {
+                return EMBEDDED_DATA_SOURCE;
+            }
+            Class<?> h2DataSourceClass = TestClassUtil.tryGetClass("org.h2.jdbcx.JdbcDataSource");
+            if (Objects.isNull(h2DataSourceClass)) {
+                throw new IllegalStateException("embedded database requires com.h2database:h2 on the test classpath");
+            }
+            try {
+                Path workingFile = copySnapshot(getSnapshot());
+                String workingName = workingFile.toString()
+                    .substring(0, workingFile.toString().length() - H2_FILE_SUFFIX.length());
+                Object dataSource = h2DataSourceClass.getDeclaredConstructor().newInstance();
+                h2DataSourceClass.getMethod("setURL", String.class)
+                    .invoke(dataSource, "jdbc:h2:file:" + workingName + H2_URL_OPTIONS);
+                h2DataSourceClass.getMethod("setUser", String.class).invoke(dataSource, "sa");
+                h2DataSourceClass.getMethod("setPassword", String.class).invoke(dataSource, "");
+                EMBEDDED_DATA_SOURCE = (DataSource)dataSource;
+                return EMBEDDED_DATA_SOURCE;
+            } catch (Exception e) {
+                throw new RuntimeException("create embedded database failed", e);
+            }
+        }
+    }
+
+    /**
+     * 获取初始化脚本对应的快照，快照不存在时执行脚本生成
+     *
+     * @return 快照文件
+     * @throws Exception 生成失败时抛出
+     */
+    private static Path getSnapshot() throws Exception {
+
+        Path snapshotDir = Paths.get(SNAPSHOT_DIR).toAbsolutePath();
+        Files.createDirectories(snapshotDir);
+        String snapshotName = "snapshot-" + getScriptsDigest();
+        Path snapshotFile = snapshotDir.resolve(snapshotName + H2_FILE_SUFFIX);
+        if (Files.exists(snapshotFile)) {
+            return snapshotFile;
+        }
+        Path buildingName = snapshotDir.resolve(snapshotName + "-" + System.nanoTime());
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:file:" + buildingName + H2_URL_OPTIONS,
+            "sa",
+            ""
+        ); Statement statement = connection.createStatement()) {
+            for (String script : SCRIPTS) {
+                if (new ClassPathResource(script).exists()) {
+                    statement.execute("RUNSCRIPT FROM 'classpath:" + script.replace("'", "''") + "'");
+                }
+            }
+            statement.execute("SHUTDOWN");
+        }
+        Path buildingFile = Paths.get(buildingName + H2_FILE_SUFFIX);
+        Files.deleteIfExists(Paths.get(buildingName + H2_TRACE_FILE_SUFFIX));
+        try {
+            moveSnapshot(buildingFile, snapshotFile);
+        } catch (IOException e) {
+            Files.deleteIfExists(buildingFile);
+            // 并发生成时已有其他进程生成快照，否则为真实的失败
+            if (!Files.exists(snapshotFile)) {
+                throw e;
+            }
+        }
+        return snapshotFile;
+    }
+
+    /**
+     * 将生成的数据库文件移动为快照，文件系统不支持原子移动时退化为普通移动
+     *
+     * @param buildingFile 生成的数据库文件
+     * @param snapshotFile 快照文件
+     * @throws IOException 移动失败时抛出
+     */
+    private static void moveSnapshot(Path buildingFile, Path snapshotFile) throws IOException {
+
+        try {
+            Files.move(buildingFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(buildingFile, snapshotFile);
+        }
+    }
+
+    /**
+     * 复制快照作为本次运行的数据库，测试修改的数据不会污染快照
+     *
+     * @param snapshotFile 快照文件
+     * @return 本次运行的数据库文件
+     * @throws IOException 复制失败时抛出
+     */
+    private static Path copySnapshot(Path snapshotFile) throws IOException {
+
+        Path workingFile = snapshotFile.resolveSibling("working-" + System.nanoTime() + H2_FILE_SUFFIX);
+        Files.copy(snapshotFile, workingFile);
+        workingFile.toFile().deleteOnExit();
+        String workingName = workingFile.toString();
+        Paths.get(workingName.substring(0, workingName.length() - H2_FILE_SUFFIX.length()) + H2_TRACE_FILE_SUFFIX)
+            .toFile()
+            .deleteOnExit();
+        return workingFile;
+    }
+
+    /**
+     * 计算初始化脚本摘要
+     *
+     * @return 初始化脚本摘要
+     * @throws IOException 读取失败时抛出
+     */
+    private static String getScriptsDigest() throws IOException {
+
+        ByteArrayOutputStream scriptContent = new ByteArrayOutputStream();
+        for (String script : SCRIPTS) {
+            ClassPathResource resource = new ClassPathResource(script);
+            scriptContent.write(script.getBytes(StandardCharsets.UTF_8));
+            if (!resource.exists()) {
+                continue;
+            }
+            try (InputStream inputStream = resource.getInputStream()) {
+                StreamUtils.copy(inputStream, scriptContent);
+            }
+        }
+        return DigestUtils.md5DigestAsHex(scriptContent.toByteArray());
+    }
+
+    /**
+     * 创建声明类型的数据源包装，DataSource接口方法委托给内嵌数据源，按具体类型注入时类型仍然匹配
+     *
+     * @param beanClass          声明类型
+     * @param embeddedDataSource 内嵌数据源
+     * @return 数据源包装
+     */
+    private static Object createDataSourceWrapper(Class<?> beanClass, DataSource embeddedDataSource) {
+
+        if (Modifier.isFinal(beanClass.getModifiers()) || beanClass.isInterface()) {
+            throw new IllegalStateException("embedded database cannot replace data source type:" + beanClass.getName());
+        }
+        Enhancer enhancer = new Enhancer();
+        enhancer.setSuperclass(beanClass);
+        enhancer.setCallbackFilter(DATA_SOURCE_METHOD_FILTER);
+        enhancer.setCallbacks(new Callback[] {
+            (MethodInterceptor)(target, method, args, methodProxy) -> {
+                try {
+                    return method.invoke(embeddedDataSource, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            },
+            NoOp.INSTANCE
+        });
+        try {
+            return enhancer.create();
+        } catch (Exception e) {
+            throw new IllegalStateException("embedded database cannot replace data source type:" + beanClass.getName(),
+                e
+            );
+        }
+    }
+
+    /**
+     * 是否DataSource接口方法（包括CommonDataSource及Wrapper）
+     *
+     * @param method 方法
+     * @return 是否DataSource接口方法
+     */
+    private static boolean isDataSourceMethod(Method method) {
+
+        try {
+            DataSource.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 内嵌数据源替换处理器
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    private static class EmbeddedDataSourceProcessor implements InstantiationAwareBeanPostProcessor {
+
+        /**
+         * DataSource实例化前返回内嵌数据源，声明为具体类型（如HikariDataSource）时返回该类型的包装
+         *
+         * @param beanClass bean类
+         * @param beanName  bean名称
+         * @return 内嵌数据源，非DataSource时返回null
+         * @throws BeansException 失败时抛出
+         */
+        @Override
+        public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
+
+            if (!DataSource.class.isAssignableFrom(beanClass)) {
+                return null;
+            }
+            DataSource embeddedDataSource = getDataSource();
+            if (beanClass.isInstance(embeddedDataSource)) {
+                return embeddedDataSource;
+            }
+            return createDataSourceWrapper(beanClass, embeddedDataSource);
+        }
+
+    }
+
+}
@@ -0,0 +1,1027 @@
+package io.github.atom.test.loader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 进程内Redis替身，实现RESP2协议及常用的string/key/hash/list/set命令，数据仅保存在内存中
+ * 不支持事务、SCAN、有序集合、Lua脚本及发布订阅，执行这些命令时返回明确的不支持错误
+ *
+ * @author Zhang Kangkang
+ * @version 1.0
+ */
+public class EmbeddedRedisServer {
+
+    /**
+     * 键值编码，保证任意字节可无损转换
+     */
+    private static final java.nio.charset.Charset KEY_CHARSET = StandardCharsets.ISO_8859_1;
+
+    /**
+     * 换行
+     */
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 不支持的命令，有序集合命令按前缀Z判断
+     */
+    private static final Set<String> UNSUPPORTED_COMMAND_SET = new HashSet<>(Arrays.asList("MULTI",
+        "EXEC",
+        "DISCARD",
+        "WATCH",
+        "UNWATCH",
+        "SCAN",
+        "HSCAN",
+        "SSCAN",
+        "EVAL",
+        "EVALSHA",
+        "EVAL_RO",
+        "EVALSHA_RO",
+        "SCRIPT",
+        "FCALL",
+        "SUBSCRIBE",
+        "PSUBSCRIBE",
+        "PUBLISH"
+    ));
+
+    /**
+     * 数据
+     */
+    private final Map<String, Object> data = new HashMap<>(64);
+
+    /**
+     * 过期时间（毫秒时间戳）
+     */
+    private final Map<String, Long> expireAt = new HashMap<>(16);
+
+    /**
+     * 服务端socket
+     */
+    private final ServerSocket serverSocket;
+
+    /**
+     * 客户端连接
+     */
+    private final Set<Socket> clientSocketSet = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 构造器，监听本机随机端口
+     *
+     * @throws IOException 端口监听失败时抛出
+     */
+    public EmbeddedRedisServer() throws IOException {
+
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptThread = new Thread(this::accept, "embedded-redis-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    /**
+     * 获取监听地址
+     *
+     * @return 监听地址
+     */
+    public String getHost() {
+
+        return serverSocket.getInetAddress().getHostAddress();
+    }
+
+    /**
+     * 获取监听端口
+     *
+     * @return 监听端口
+     */
+    public int getPort() {
+
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * 关闭服务及所有客户端连接
+     */
+    public void close() {
+
+        try {
+            serverSocket.close();
+        } catch (IOException ignore) {
+        }
+        for (Socket clientSocket : clientSocketSet) {
+            try {
+                clientSocket.close();
+            } catch (IOException ignore) {
+            }
+        }
+        clientSocketSet.clear();
+    }
+
+    /**
+     * 接收连接
+     */
+    private void accept() {
+
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                clientSocketSet.add(socket);
+                Thread clientThread = new Thread(() -> serve(socket), "embedded-redis-client");
+                clientThread.setDaemon(true);
+                clientThread.start();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    /**
+     * 处理连接请求
+     *
+     * @param socket 连接
+     */
+    private void serve(Socket socket) {
+
+        try (Socket client = socket;
+             InputStream inputStream = new BufferedInputStream(client.getInputStream());
+             OutputStream outputStream = new BufferedOutputStream(client.getOutputStream())) {
+            while (!client.isClosed()) {
+                List<byte[]> command = readCommand(inputStream);
+                if (Objects.isNull(command)) {
+                    return;
+                }
+                if (command.isEmpty()) {
+                    continue;
+                }
+                Object reply;
+                try {
+                    synchronized (this) {
+                        reply = execute(command);
+                    }
+                } catch (RedisError e) {
+                    reply = e;
+                }
+                writeReply(outputStream, reply);
+                outputStream.flush();
+                if ("QUIT".equals(name(command))) {
+                    return;
+                }
+            }
+        } catch (IOException ignore) {
+        } finally {
+            clientSocketSet.remove(socket);
+        }
+    }
+
+    /**
+     * 执行命令
+     *
+     * @param command 命令
+     * @return 返回值
+     */
+    private Object execute(List<byte[]> command) {
+
+        String name = name(command);
+        switch (name) {
+            case "PING":
+                return command.size() > 1 ? command.get(1) : new Status("PONG");
+            case "ECHO":
+                return arg(command, 1);
+            case "QUIT":
+            case "SELECT":
+            case "AUTH":
+            case "CLIENT":
+            case "READONLY":
+                return Status.OK;
+            case "INFO":
+                return "# Server\r\nredis_version:6.2.0\r\nredis_mode:standalone\r\n".getBytes(StandardCharsets.UTF_8);
+            case "FLUSHDB":
+            case "FLUSHALL":
+                data.clear();
+                expireAt.clear();
+                return Status.OK;
+            case "DBSIZE":
+                purgeExpired();
+                return (long)data.size();
+            case "GET":
+                return getString(key(command, 1));
+            case "SET":
+                return set(command);
+            case "SETEX":
+                putString(key(command, 1), arg(command, 3));
+                expire(key(command, 1), parseLong(arg(command, 2)) * 1000);
+                return Status.OK;
+            case "PSETEX":
+                putString(key(command, 1), arg(command, 3));
+                expire(key(command, 1), parseLong(arg(command, 2)));
+                return Status.OK;
+            case "SETNX":
+                if (Objects.nonNull(get(key(command, 1)))) {
+                    return 0L;
+                }
+                putString(key(command, 1), arg(command, 2));
+                return 1L;
+            case "GETSET": {
+                byte[] old = getString(key(command, 1));
+                putString(key(command, 1), arg(command, 2));
+                return old;
+            }
+            case "MGET": {
+                List<Object> values = new ArrayList<>();
+                for (int i = 1; i < command.size(); i++) {
+                    Object value = get(key(command, i));
+                    values.add(value instanceof byte[] ? value : null);
+                }
+                return values;
+            }
+            case "MSET":
+                for (int i = 1; i + 1 < command.size(); i += 2) {
+                    putString(key(command, i), arg(command, i + 1));
+                }
+                return Status.OK;
+            case "APPEND": {
+                byte[] old = getString(key(command, 1));
+                byte[] append = arg(command, 2);
+                byte[] value = Objects.isNull(old) ? append : concat(old, append);
+                data.put(key(command, 1), value);
+                return (long)value.length;
+            }
+            case "STRLEN": {
+                byte[] value = getString(key(command, 1));
+                return Objects.isNull(value) ? 0L : (long)value.length;
+            }
+            case "INCR":
+                return incrBy(key(command, 1), 1);
+            case "INCRBY":
+                return incrBy(key(command, 1), parseLong(arg(command, 2)));
+            case "DECR":
+                return incrBy(key(command, 1), -1);
+            case "DECRBY":
+                return incrBy(key(command, 1), -parseLong(arg(command, 2)));
+            case "DEL":
+            case "UNLINK": {
+                long count = 0;
+                for (int i = 1; i < command.size(); i++) {
+                    if (Objects.nonNull(get(key(command, i)))) {
+                        remove(key(command, i));
+                        count++;
+                    }
+                }
+                return count;
+            }
+            case "EXISTS": {
+                long count = 0;
+                for (int i = 1; i < command.size(); i++) {
+                    count += Objects.nonNull(get(key(command, i))) ? 1 : 0;
+                }
+                return count;
+            }
+            case "EXPIRE":
+                return expireIfPresent(key(command, 1), parseLong(arg(command, 2)) * 1000);
+            case "PEXPIRE":
+                return expireIfPresent(key(command, 1), parseLong(arg(command, 2)));
+            case "TTL":
+                return ttl(key(command, 1), 1000);
+            case "PTTL":
+                return ttl(key(command, 1), 1);
+            case "PERSIST":
+                return Objects.nonNull(get(key(command, 1))) && Objects.nonNull(expireAt.remove(key(command, 1)))
+                    ? 1L
+                    : 0L;
+            case "KEYS":
+                return keys(string(arg(command, 1)));
+            case "TYPE":
+                return new Status(type(get(key(command, 1))));
+            case "HGET":
+                return getHash(key(command, 1), false).get(key(command, 2));
+            case "HSET":
+            case "HMSET": {
+                Map<String, byte[]> hash = getHash(key(command, 1), true);
+                long count = 0;
+                for (int i = 2; i + 1 < command.size(); i += 2) {
+                    count += Objects.isNull(hash.put(key(command, i), arg(command, i + 1))) ? 1 : 0;
+                }
+                return "HMSET".equals(name) ? Status.OK : count;
+            }
+            case "HSETNX": {
+                Map<String, byte[]> hash = getHash(key(command, 1), true);
+                return Objects.isNull(hash.putIfAbsent(key(command, 2), arg(command, 3))) ? 1L : 0L;
+            }
+            case "HMGET": {
+                Map<String, byte[]> hash = getHash(key(command, 1), false);
+                List<Object> values = new ArrayList<>();
+                for (int i = 2; i < command.size(); i++) {
+                    values.add(hash.get(key(command, i)));
+                }
+                return values;
+            }
+            case "HGETALL": {
+                List<Object> values = new ArrayList<>();
+                for (Map.Entry<String, byte[]> entry : getHash(key(command, 1), false).entrySet()) {
+                    values.add(bytes(entry.getKey()));
+                    values.add(entry.getValue());
+                }
+                return values;
+            }
+            case "HKEYS": {
+                List<Object> values = new ArrayList<>();
+                for (String field : getHash(key(command, 1), false).keySet()) {
+                    values.add(bytes(field));
+                }
+                return values;
+            }
+            case "HVALS":
+                return new ArrayList<Object>(getHash(key(command, 1), false).values());
+            case "HLEN":
+                return (long)getHash(key(command, 1), false).size();
+            case "HEXISTS":
+                return getHash(key(command, 1), false).containsKey(key(command, 2)) ? 1L : 0L;
+            case "HDEL": {
+                Map<String, byte[]> hash = getHash(key(command, 1), false);
+                long count = 0;
+                for (int i = 2; i < command.size(); i++) {
+                    count += Objects.nonNull(hash.remove(key(command, i))) ? 1 : 0;
+                }
+                removeIfEmpty(key(command, 1), hash.isEmpty());
+                return count;
+            }
+            case "HINCRBY": {
+                Map<String, byte[]> hash = getHash(key(command, 1), true);
+                byte[] old = hash.get(key(command, 2));
+                long value = (Objects.isNull(old) ? 0 : parseLong(old)) + parseLong(arg(command, 3));
+                hash.put(key(command, 2), bytes(String.valueOf(value)));
+                return value;
+            }
+            case "LPUSH":
+            case "RPUSH": {
+                LinkedList<byte[]> list = getList(key(command, 1), true);
+                for (int i = 2; i < command.size(); i++) {
+                    if ("LPUSH".equals(name)) {
+                        list.addFirst(arg(command, i));
+                    } else {
+                        list.addLast(arg(command, i));
+                    }
+                }
+                return (long)list.size();
+            }
+            case "LPOP":
+            case "RPOP": {
+                LinkedList<byte[]> list = getList(key(command, 1), false);
+                byte[] value = list.isEmpty() ? null : "LPOP".equals(name) ? list.removeFirst() : list.removeLast();
+                removeIfEmpty(key(command, 1), list.isEmpty());
+                return value;
+            }
+            case "LLEN":
+                return (long)getList(key(command, 1), false).size();
+            case "LINDEX": {
+                LinkedList<byte[]> list = getList(key(command, 1), false);
+                int index = normalizeIndex(parseLong(arg(command, 2)), list.size());
+                return index >= 0 && index < list.size() ? list.get(index) : null;
+            }
+            case "LRANGE": {
+                LinkedList<byte[]> list = getList(key(command, 1), false);
+                int start = Math.max(normalizeIndex(parseLong(arg(command, 2)), list.size()), 0);
+                int end = Math.min(normalizeIndex(parseLong(arg(command, 3)), list.size()), list.size() - 1);
+                List<Object> values = new ArrayList<>();
+                for (int i = start; i <= end; i++) {
+                    values.add(list.get(i));
+                }
+                return values;
+            }
+            case "SADD": {
+                Set<String> set = getSet(key(command, 1), true);
+                long count = 0;
+                for (int i = 2; i < command.size(); i++) {
+                    count += set.add(key(command, i)) ? 1 : 0;
+                }
+                return count;
+            }
+            case "SREM": {
+                Set<String> set = getSet(key(command, 1), false);
+                long count = 0;
+                for (int i = 2; i < command.size(); i++) {
+                    count += set.remove(key(command, i)) ? 1 : 0;
+                }
+                removeIfEmpty(key(command, 1), set.isEmpty());
+                return count;
+            }
+            case "SMEMBERS": {
+                List<Object> values = new ArrayList<>();
+                for (String member : getSet(key(command, 1), false)) {
+                    values.add(bytes(member));
+                }
+                return values;
+            }
+            case "SISMEMBER":
+                return getSet(key(command, 1), false).contains(key(command, 2)) ? 1L : 0L;
+            case "SCARD":
+                return (long)getSet(key(command, 1), false).size();
+            default:
+                if (UNSUPPORTED_COMMAND_SET.contains(name) || name.startsWith("Z")) {
+                    throw new RedisError("ERR command '" + name.toLowerCase(Locale.ROOT)
+                        + "' is not supported by the embedded redis, disable embeddedRedis to use a real redis server");
+                }
+                throw new RedisError("ERR unknown command '" + name.toLowerCase(Locale.ROOT) + "'");
+        }
+    }
+
+    /**
+     * SET命令，支持EX/PX/NX/XX参数
+     *
+     * @param command 命令
+     * @return 返回值
+     */
+    private Object set(List<byte[]> command) {
+
+        String key = key(command, 1);
+        long expireMillis = -1;
+        boolean nx = false;
+        boolean xx = false;
+        for (int i = 3; i < command.size(); i++) {
+            String option = string(command.get(i)).toUpperCase(Locale.ROOT);
+            if ("EX".equals(option)) {
+                expireMillis = parseLong(arg(command, ++i)) * 1000;
+            } else if ("PX".equals(option)) {
+                expireMillis = parseLong(arg(command, ++i));
+            } else if ("NX".equals(option)) {
+                nx = true;
+            } else if ("XX".equals(option)) {
+                xx = true;
+            }
+        }
+        boolean exists = Objects.nonNull(get(key));
+        if ((nx && exists) || (xx && !exists)) {
+            return null;
+        }
+        putString(key, arg(command, 2));
+        if (expireMillis > 0) {
+            expire(key, expireMillis);
+        }
+        return Status.OK;
+    }
+
+    /**
+     * 获取未过期的值
+     *
+     * @param key 键
+     * @return 值
+     */
+    private Object get(String key) {
+
+        Long expire = expireAt.get(key);
+        if (Objects.nonNull(expire) && expire <= System.currentTimeMillis()) {
+            remove(key);
+            return null;
+        }
+        return data.get(key);
+    }
+
+    /**
+     * 删除键
+     *
+     * @param key 键
+     */
+    private void remove(String key) {
+
+        data.remove(key);
+        expireAt.remove(key);
+    }
+
+    /**
+     * 集合类型为空时删除键
+     *
+     * @param key   键
+     * @param empty 是否为空
+     */
+    private void removeIfEmpty(String key, boolean empty) {
+
+        if (empty) {
+            remove(key);
+        }
+    }
+
+    /**
+     * 清理过期键
+     */
+    private void purgeExpired() {
+
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Long>> iterator = expireAt.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (entry.getValue() <= now) {
+                data.remove(entry.getKey());
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 设置字符串，并清除过期时间
+     *
+     * @param key   键
+     * @param value 值
+     */
+    private void putString(String key, byte[] value) {
+
+        data.put(key, value);
+        expireAt.remove(key);
+    }
+
+    /**
+     * 获取字符串
+     *
+     * @param key 键
+     * @return 值
+     */
+    private byte[] getString(String key) {
+
+        Object value = get(key);
+        if (Objects.isNull(value)) {
+            return null;
+        }
+        if (!(value instanceof byte[])) {
+            throw RedisError.WRONG_TYPE;
+        }
+        return (byte[])value;
+    }
+
+    /**
+     * 获取哈希
+     *
+     * @param key    键
+     * @param create 不存在时是否创建
+     * @return 哈希
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, byte[]> getHash(String key, boolean create) {
+
+        Object value = get(key);
+        if (Objects.isNull(value)) {
+            value = new LinkedHashMap<String, byte[]>();
+            if (create) {
+                data.put(key, value);
+            }
+        }
+        if (!(value instanceof Map)) {
+            throw RedisError.WRONG_TYPE;
+        }
+        return (Map<String, byte[]>)value;
+    }
+
+    /**
+     * 获取列表
+     *
+     * @param key    键
+     * @param create 不存在时是否创建
+     * @return 列表
+     */
+    @SuppressWarnings("unchecked")
+    private LinkedList<byte[]> getList(String key, boolean create) {
+
+        Object value = get(key);
+        if (Objects.isNull(value)) {
+            value = new LinkedList<byte[]>();
+            if (create) {
+                data.put(key, value);
+            }
+        }
+        if (!(value instanceof LinkedList)) {
+            throw RedisError.WRONG_TYPE;
+        }
+        return (LinkedList<byte[]>)value;
+    }
+
+    /**
+     * 获取集合
+     *
+     * @param key    键
+     * @param create 不存在时是否创建
+     * @return 集合
+     */
+    @SuppressWarnings("unchecked")
+    private Set<String> getSet(String key, boolean create) {
+
+        Object value = get(key);
+        if (Objects.isNull(value)) {
+            value = new LinkedHashSet<String>();
+            if (create) {
+                data.put(key, value);
+            }
+        }
+        if (!(value instanceof Set)) {
+            throw RedisError.WRONG_TYPE;
+        }
+        return (Set<String>)value;
+    }
+
+    /**
+     * 自增
+     *
+     * @param key   键
+     * @param delta 增量
+     * @return 自增后的值
+     */
+    private long incrBy(String key, long delta) {
+
+        byte[] old = getString(key);
+        long value = (Objects.isNull(old) ? 0 : parseLong(old)) + delta;
+        data.put(key, bytes(String.valueOf(value)));
+        return value;
+    }
+
+    /**
+     * 设置过期时间
+     *
+     * @param key          键
+     * @param expireMillis 过期毫秒数
+     */
+    private void expire(String key, long expireMillis) {
+
+        expireAt.put(key, System.currentTimeMillis() + expireMillis);
+    }
+
+    /**
+     * 键存在时设置过期时间
+     *
+     * @param key          键
+     * @param expireMillis 过期毫秒数
+     * @return 是否设置成功
+     */
+    private long expireIfPresent(String key, long expireMillis) {
+
+        if (Objects.isNull(get(key))) {
+            return 0L;
+        }
+        expire(key, expireMillis);
+        return 1L;
+    }
+
+    /**
+     * 获取剩余过期时间
+     *
+     * @param key  键
+     * @param unit 时间单位（毫秒数）
+     * @return 剩余过期时间，-2不存在，-1永不过期
+     */
+    private long ttl(String key, long unit) {
+
+        if (Objects.isNull(get(key))) {
+            return -2L;
+        }
+        Long expire = expireAt.get(key);
+        if (Objects.isNull(expire)) {
+            return -1L;
+        }
+        return Math.max(0, (expire - System.currentTimeMillis() + unit - 1) / unit);
+    }
+
+    /**
+     * 按通配符查询键
+     *
+     * @param glob 通配符
+     * @return 键
+     */
+    private List<Object> keys(String glob) {
+
+        purgeExpired();
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else if (c == '[' || c == ']') {
+                regex.append(c);
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        Pattern pattern = Pattern.compile(regex.toString(), Pattern.DOTALL);
+        List<Object> keys = new ArrayList<>();
+        for (String key : data.keySet()) {
+            if (pattern.matcher(key).matches()) {
+                keys.add(bytes(key));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 获取值类型
+     *
+     * @param value 值
+     * @return 值类型
+     */
+    private static String type(Object value) {
+
+        if (Objects.isNull(value)) {
+            return "none";
+        }
+        if (value instanceof byte[]) {
+            return "string";
+        }
+        if (value instanceof Map) {
+            return "hash";
+        }
+        if (value instanceof LinkedList) {
+            return "list";
+        }
+        return "set";
+    }
+
+    /**
+     * 负数下标转换为正数下标
+     *
+     * @param index 下标
+     * @param size  长度
+     * @return 正数下标
+     */
+    private static int normalizeIndex(long index, int size) {
+
+        return (int)(index < 0 ? size + index : index);
+    }
+
+    /**
+     * 读取命令
+     *
+     * @param inputStream 输入流
+     * @return 命令，连接关闭时返回null
+     * @throws IOException 读取失败时抛出
+     */
+    private static List<byte[]> readCommand(InputStream inputStream) throws IOException {
+
+        int first = inputStream.read();
+        if (first == -1) {
+            return null;
+        }
+        List<byte[]> command = new ArrayList<>();
+        if (first != '*') {
+            // inline命令
+            String line = (char)first + readLine(inputStream);
+            for (String part : line.trim().split("\\s+")) {
+                if (!part.isEmpty()) {
+                    command.add(bytes(part));
+                }
+            }
+            return command;
+        }
+        int count = Integer.parseInt(readLine(inputStream));
+        for (int i = 0; i < count; i++) {
+            if (inputStream.read() != '$') {
+                throw new IOException("invalid bulk string");
+            }
+            int length = Integer.parseInt(readLine(inputStream));
+            byte[] arg = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                int read = inputStream.read(arg, offset, length - offset);
+                if (read == -1) {
+                    throw new EOFException();
+                }
+                offset += read;
+            }
+            readLine(inputStream);
+            command.add(arg);
+        }
+        return command;
+    }
+
+    /**
+     * 读取一行
+     *
+     * @param inputStream 输入流
+     * @return 行内容
+     * @throws IOException 读取失败时抛出
+     */
+    private static String readLine(InputStream inputStream) throws IOException {
+
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = inputStream.read()) != -1) {
+            if (c == '\r') {
+                inputStream.read();
+                return line.toString();
+            }
+            line.append((char)c);
+        }
+        throw new EOFException();
+    }
+
+    /**
+     * 写入返回值
+     *
+     * @param outputStream 输出流
+     * @param reply        返回值
+     * @throws IOException 写入失败时抛出
+     */
+    private static void writeReply(OutputStream outputStream, Object reply) throws IOException {
+
+        if (Objects.isNull(reply)) {
+            outputStream.write(bytes("$-1"));
+        } else if (reply instanceof Status) {
+            outputStream.write(bytes("+" + ((Status)reply).getMessage()));
+        } else if (reply instanceof RedisError) {
+            outputStream.write(bytes("-" + ((RedisError)reply).getMessage()));
+        } else if (reply instanceof Long) {
+            outputStream.write(bytes(":" + reply));
+        } else if (reply instanceof byte[]) {
+            byte[] value = (byte[])reply;
+            outputStream.write(bytes("$" + value.length));
+            outputStream.write(CRLF);
+            outputStream.write(value);
+        } else if (reply instanceof List) {
+            List<?> values = (List<?>)reply;
+            outputStream.write(bytes("*" + values.size()));
+            outputStream.write(CRLF);
+            for (Object value : values) {
+                writeReply(outputStream, value);
+            }
+            return;
+        }
+        outputStream.write(CRLF);
+    }
+
+    /**
+     * 获取命令名称
+     *
+     * @param command 命令
+     * @return 命令名称
+     */
+    private static String name(List<byte[]> command) {
+
+        return string(command.get(0)).toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * 获取参数
+     *
+     * @param command 命令
+     * @param index   下标
+     * @return 参数
+     */
+    private static byte[] arg(List<byte[]> command, int index) {
+
+        if (index >= command.size()) {
+            throw new RedisError("ERR wrong number of arguments for '" + name(command).toLowerCase(Locale.ROOT)
+                + "' command");
+        }
+        return command.get(index);
+    }
+
+    /**
+     * 获取键参数
+     *
+     * @param command 命令
+     * @param index   下标
+     * @return 键
+     */
+    private static String key(List<byte[]> command, int index) {
+
+        return string(arg(command, index));
+    }
+
+    /**
+     * 转换为长整型
+     *
+     * @param value 值
+     * @return 长整型
+     */
+    private static long parseLong(byte[] value) {
+
+        try {
+            return Long.parseLong(string(value));
+        } catch (NumberFormatException e) {
+            throw new RedisError("ERR value is not an integer or out of range");
+        }
+    }
+
+    /**
+     * 字节转字符串
+     *
+     * @param value 字节
+     * @return 字符串
+     */
+    private static String string(byte[] value) {
+
+        return new String(value, KEY_CHARSET);
+    }
+
+    /**
+     * 字符串转字节
+     *
+     * @param value 字符串
+     * @return 字节
+     */
+    private static byte[] bytes(String value) {
+
+        return value.getBytes(KEY_CHARSET);
+    }
+
+    /**
+     * 拼接字节
+     *
+     * @param first  字节
+     * @param second 字节
+     * @return 拼接后的字节
+     */
+    private static byte[] concat(byte[] first, byte[] second) {
+
+        byte[] value = new byte[first.length + second.length];
+        System.arraycopy(first, 0, value, 0, first.length);
+        System.arraycopy(second, 0, value, first.length, second.length);
+        return value;
+    }
+
+    /**
+     * 状态返回值
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    static class Status {
+
+        /**
+         * OK
+         */
+        static final Status OK = new Status("OK");
+
+        /**
+         * 状态信息
+         */
+        private final String message;
+
+        /**
+         * 构造器
+         *
+         * @param message 状态信息
+         */
+        Status(String message) {
+
+            this.message = message;
+        }
+
+        /**
+         * 获取状态信息
+         *
+         * @return 状态信息
+         */
+        public String getMessage() {
+
+            return message;
+        }
+
+    }
+
+    /**
+     * 错误返回值
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    static class RedisError extends RuntimeException {
+
+        /**
+         * 序列化版本
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 类型错误
+         */
+        static final RedisError WRONG_TYPE =
+            new RedisError("WRONGTYPE Operation against a key holding the wrong kind of value");
+
+        /**
+         * 构造器
+         *
+         * @param message 错误信息
+         */
+        RedisError(String message) {
+
+            super(message, null, false, false);
+        }
+
+    }
+
+}
@@ -2,18 +2,46 @@ package io.github.atom.test.loader;
 
 import com.google.common.collect.Sets;
 import io.github.atom.test.FastDynamicBeanLoadingTest;
+import io.github.atom.test.utils.IntegrationCapabilities;
 import io.github.atom.test.utils.TestClassUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.env.EnvironmentPostProcessor;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.SpringFactoriesLoader;
-import org.springframework.util.AntPathMatcher;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * MyBatis上下文装载器
@@ -23,10 +51,92 @@ import java.util.*;
  */
 public class MyBatisContextLoader implements TestContextLoader {
 
+    /**
+     * 日志记录对象
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(MyBatisContextLoader.class);
+
     /**
      * mapper包
      */
-    static final Set<String> MAPPER_PACKAGE_SET = Sets.newHashSet();
+    static final Set<String> MAPPER_PACKAGE_SET = ConcurrentHashMap.newKeySet();
+
+    /**
+     * mapper包匹配器，mapper包变化时重新编译
+     */
+    private static volatile MapperPackageMatcher MAPPER_PACKAGE_MATCHER;
+
+    /**
+     * mapper判定缓存（class为key）
+     */
+    private static final Map<Class<?>, Boolean> MAPPER_CLASS_CACHE = new ConcurrentHashMap<>(16);
+
+    /**
+     * 共享的MyBatis基础上下文，所有mapper复用同一个SqlSessionFactory
+     */
+    private static volatile AnnotationConfigApplicationContext MYBATIS_CONTEXT;
+
+    /**
+     * mapper xml位置属性
+     */
+    private static final String[] MAPPER_LOCATIONS_PROPERTIES =
+        {"mybatis.mapper-locations", "mybatis-plus.mapper-locations"};
+
+    /**
+     * MyBatis-Plus默认mapper xml位置
+     */
+    private static final String MYBATIS_PLUS_DEFAULT_MAPPER_LOCATION = "classpath*:/mapper/**/*.xml";
+
+    /**
+     * mapper xml命名空间
+     */
+    private static final Pattern MAPPER_NAMESPACE_PATTERN =
+        Pattern.compile("<mapper[^>]*?namespace\\s*=\\s*[\"']([^\"']+)[\"']");
+
+    /**
+     * mapper xml中引用其他命名空间的属性（include、resultMap继承及嵌套查询）
+     */
+    private static final Pattern MAPPER_REFERENCE_PATTERN =
+        Pattern.compile("\\s(?:refid|extends|resultMap|select)\\s*=\\s*[\"']([^\"']+)[\"']");
+
+    /**
+     * mapper xml中的缓存引用
+     */
+    private static final Pattern MAPPER_CACHE_REF_PATTERN =
+        Pattern.compile("<cache-ref[^>]*?namespace\\s*=\\s*[\"']([^\"']+)[\"']");
+
+    /**
+     * mapper代理处理器
+     */
+    private static final Set<String> MAPPER_PROXY_CLASS_NAME_SET = Sets.newHashSet(
+        "org.apache.ibatis.binding.MapperProxy",
+        "com.baomidou.mybatisplus.core.override.MybatisMapperProxy"
+    );
+
+    /**
+     * mapper xml索引（命名空间为key）
+     */
+    private static final Map<String, List<Resource>> MAPPER_XML_INDEX = new ConcurrentHashMap<>(16);
+
+    /**
+     * mapper xml引用的其他命名空间（命名空间为key）
+     */
+    private static final Map<String, Set<String>> MAPPER_XML_REFERENCE_INDEX = new ConcurrentHashMap<>(16);
+
+    /**
+     * EnvironmentPostProcessor添加或替换的属性源，所有MyBatis上下文复用
+     */
+    private static volatile List<PropertySourceChange> SEATA_PROPERTY_SOURCE_CHANGES;
+
+    /**
+     * EnvironmentPostProcessor设置的激活配置，未修改时为空
+     */
+    private static volatile String[] SEATA_ACTIVE_PROFILES;
+
+    /**
+     * 是否按需解析mapper xml
+     */
+    private static volatile boolean LAZY_MAPPER_XML = false;
 
     /**
      * 判断能否处理bean
@@ -54,14 +164,40 @@ public class MyBatisContextLoader implements TestContextLoader {
      */
     private boolean containPackage(Class<?> clazz) {
 
-        AntPathMatcher matcher = new AntPathMatcher();
-        for (String mapperPackage : MAPPER_PACKAGE_SET) {
-            boolean match = matcher.match(mapperPackage, clazz.getPackage().getName());
-            if (clazz.isInterface() && match) {
-                return true;
-            }
+        if (!clazz.isInterface()) {
+            return false;
+        }
+        return MAPPER_CLASS_CACHE.computeIfAbsent(clazz,
+            key -> getMapperPackageMatcher().match(key.getPackage().getName())
+        );
+    }
+
+    /**
+     * 获取mapper包匹配器
+     *
+     * @return mapper包匹配器
+     */
+    private static MapperPackageMatcher getMapperPackageMatcher() {
+
+        MapperPackageMatcher matcher = MAPPER_PACKAGE_MATCHER;
+        if (Objects.isNull(matcher)) {
+            matcher = new MapperPackageMatcher(MAPPER_PACKAGE_SET);
+            MAPPER_PACKAGE_MATCHER = matcher;
+        }
+        return matcher;
+    }
+
+    /**
+     * 添加mapper包
+     *
+     * @param mapperPackages mapper包
+     */
+    private static void addMapperPackage(Collection<String> mapperPackages) {
+
+        if (MAPPER_PACKAGE_SET.addAll(mapperPackages)) {
+            MAPPER_PACKAGE_MATCHER = null;
+            MAPPER_CLASS_CACHE.clear();
         }
-        return false;
     }
 
     /**
@@ -79,16 +215,281 @@ public class MyBatisContextLoader implements TestContextLoader {
                               Class<?> targetClass,
                               Class<?>[] annotations) {
 
-        this.addSeataConfig(context);
-        Class<?> sqlSessionFactoryClass = TestClassUtil.tryGetClass("org.apache.ibatis.session.SqlSessionFactory");
-        List<Class<?>> classDependencyConfigurationList =
-            FastDynamicBeanLoadingTest.BEAN_CLASS_DEPENDENCY_CONFIGURATION_CLASSES.getOrDefault(sqlSessionFactoryClass,
-                Collections.emptyList()
-            );
-        for (Class<?> dependencyConfiguration : classDependencyConfigurationList) {
+        AnnotationConfigApplicationContext myBatisContext = getMyBatisContext(context);
+        registerMapperIfAbsent(myBatisContext, name, targetClass);
+        return FastDynamicBeanLoadingTest.cacheAndGet(myBatisContext, name, targetClass);
+    }
+
+    /**
+     * 批量获取bean，所有mapper注册到共享上下文后再依次获取
+     *
+     * @param contextSupplier 未刷新的上下文
+     * @param requests        bean获取请求
+     * @return bean，与请求顺序一致
+     */
+    @Override
+    public List<Object> getOrCreateAll(Supplier<AnnotationConfigApplicationContext> contextSupplier,
+                                       List<BeanRequest> requests) {
+
+        AnnotationConfigApplicationContext myBatisContext = getMyBatisContext(contextSupplier.get());
+        for (BeanRequest request : requests) {
+            registerMapperIfAbsent(myBatisContext, request.getName(), request.getTargetClass());
+        }
+        List<Object> beans = new ArrayList<>(requests.size());
+        for (BeanRequest request : requests) {
+            beans.add(FastDynamicBeanLoadingTest.cacheAndGet(myBatisContext,
+                request.getName(),
+                request.getTargetClass()
+            ));
+        }
+        return beans;
+    }
+
+    /**
+     * 获取共享的MyBatis基础上下文，SqlSessionFactory及数据源只在首次获取mapper时创建
+     *
+     * @param context 上下文
+     * @return MyBatis基础上下文
+     */
+    private static synchronized AnnotationConfigApplicationContext getMyBatisContext(
+        AnnotationConfigApplicationContext context) {
+
+        if (Objects.nonNull(MYBATIS_CONTEXT)) {
+            return MYBATIS_CONTEXT;
+        }
+        addSeataConfig(context);
+        if (LAZY_MAPPER_XML) {
+            deferMapperXml(context);
+        }
+        if (EmbeddedDataSourceLoader.isEnabled()) {
+            EmbeddedDataSourceLoader.replaceDataSource(context);
+        }
+        Class<?> sqlSessionFactoryClass = IntegrationCapabilities.get().getSqlSessionFactoryClass();
+        Set<Class<?>> classDependencyConfigurationSet =
+            FastDynamicBeanLoadingTest.getDependencyConfigurationClasses(null, sqlSessionFactoryClass);
+        for (Class<?> dependencyConfiguration : classDependencyConfigurationSet) {
             context.register(dependencyConfiguration);
         }
-        return FastDynamicBeanLoadingTest.refreshAndGet(context, name, targetClass);
+        FastDynamicBeanLoadingTest.refreshContext(context);
+        MYBATIS_CONTEXT = context;
+        return context;
+    }
+
+    /**
+     * 设置是否按需解析mapper xml
+     *
+     * @param lazyMapperXml 是否按需解析mapper xml
+     */
+    public static void setLazyMapperXml(boolean lazyMapperXml) {
+
+        LAZY_MAPPER_XML = lazyMapperXml;
+    }
+
+    /**
+     * 延迟解析mapper xml：SqlSessionFactory创建时不加载任何xml，按命名空间建立索引，mapper首次获取时再解析对应xml
+     *
+     * @param context 上下文
+     */
+    private static void deferMapperXml(AnnotationConfigApplicationContext context) {
+
+        NacosContextLoader.await();
+        ConfigurableEnvironment globalEnvironment = FastDynamicBeanLoadingTest.ALL_CONTEXT.getEnvironment();
+        Binder binder = Binder.get(globalEnvironment);
+        Set<String> mapperLocationSet = new LinkedHashSet<>();
+        Map<String, Object> emptyMapperLocations = new HashMap<>(4);
+        for (String mapperLocationsProperty : MAPPER_LOCATIONS_PROPERTIES) {
+            String[] mapperLocations = binder.bind(mapperLocationsProperty, String[].class).orElse(new String[0]);
+            mapperLocationSet.addAll(Arrays.asList(mapperLocations));
+            emptyMapperLocations.put(mapperLocationsProperty, "");
+        }
+        if (IntegrationCapabilities.get().isMyBatisPlusPresent()
+            && !globalEnvironment.containsProperty(MAPPER_LOCATIONS_PROPERTIES[1])) {
+            mapperLocationSet.add(MYBATIS_PLUS_DEFAULT_MAPPER_LOCATION);
+        }
+        indexMapperXml(mapperLocationSet);
+        context.getEnvironment()
+            .getPropertySources()
+            .addFirst(new MapPropertySource("lazyMapperLocations", emptyMapperLocations));
+        context.getBeanFactory().addBeanPostProcessor(new LazyMapperXmlProcessor(context.getBeanFactory()));
+    }
+
+    /**
+     * 按命名空间索引mapper xml
+     *
+     * @param mapperLocations mapper xml位置
+     */
+    private static void indexMapperXml(Collection<String> mapperLocations) {
+
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        for (String mapperLocation : mapperLocations) {
+            if (!StringUtils.hasText(mapperLocation)) {
+                continue;
+            }
+            try {
+                for (Resource resource : resolver.getResources(mapperLocation.trim())) {
+                    try (InputStream inputStream = resource.getInputStream()) {
+                        String content = StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+                        Matcher matcher = MAPPER_NAMESPACE_PATTERN.matcher(content);
+                        if (matcher.find()) {
+                            String namespace = matcher.group(1).trim();
+                            MAPPER_XML_INDEX.computeIfAbsent(namespace, key -> new CopyOnWriteArrayList<>())
+                                .add(resource);
+                            MAPPER_XML_REFERENCE_INDEX.computeIfAbsent(namespace, key -> ConcurrentHashMap.newKeySet())
+                                .addAll(getReferencedNamespaces(namespace, content));
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                LOG.error("Failed to index mapper xml: " + mapperLocation, e);
+            }
+        }
+    }
+
+    /**
+     * 获取mapper xml引用的其他命名空间，全限定的引用以最后一个点之前的部分为命名空间
+     *
+     * @param namespace 当前命名空间
+     * @param content   mapper xml内容
+     * @return 引用的其他命名空间
+     */
+    private static Set<String> getReferencedNamespaces(String namespace, String content) {
+
+        Set<String> referencedNamespaceSet = new LinkedHashSet<>();
+        Matcher referenceMatcher = MAPPER_REFERENCE_PATTERN.matcher(content);
+        while (referenceMatcher.find()) {
+            for (String reference : referenceMatcher.group(1).split(",")) {
+                reference = reference.trim();
+                int lastDot = reference.lastIndexOf('.');
+                if (lastDot > 0 && !reference.contains("${")) {
+                    referencedNamespaceSet.add(reference.substring(0, lastDot));
+                }
+            }
+        }
+        Matcher cacheRefMatcher = MAPPER_CACHE_REF_PATTERN.matcher(content);
+        while (cacheRefMatcher.find()) {
+            referencedNamespaceSet.add(cacheRefMatcher.group(1).trim());
+        }
+        referencedNamespaceSet.remove(namespace);
+        return referencedNamespaceSet;
+    }
+
+    /**
+     * 收集需要解析的命名空间，被引用的命名空间排在前面
+     *
+     * @param namespace    命名空间
+     * @param namespaceSet 需要解析的命名空间
+     * @param visitingSet  正在遍历的命名空间
+     * @return 引用的命名空间是否均已索引
+     */
+    private static boolean collectMapperNamespaces(String namespace,
+                                                   Set<String> namespaceSet,
+                                                   Set<String> visitingSet) {
+
+        if (namespaceSet.contains(namespace) || !visitingSet.add(namespace)) {
+            return true;
+        }
+        if (!MAPPER_XML_INDEX.containsKey(namespace)) {
+            return false;
+        }
+        boolean resolved = true;
+        for (String referencedNamespace : MAPPER_XML_REFERENCE_INDEX.getOrDefault(namespace,
+            Collections.emptySet()
+        )) {
+            resolved &= collectMapperNamespaces(referencedNamespace, namespaceSet, visitingSet);
+        }
+        namespaceSet.add(namespace);
+        return resolved;
+    }
+
+    /**
+     * 解析mapper对应的xml
+     *
+     * @param beanFactory     bean工厂
+     * @param mapperInterface mapper接口
+     */
+    private static void loadMapperXml(BeanFactory beanFactory, Class<?> mapperInterface) {
+
+        List<Resource> resourceList = MAPPER_XML_INDEX.get(mapperInterface.getName());
+        if (TestClassUtil.isCollectionEmpty(resourceList)) {
+            return;
+        }
+        IntegrationCapabilities capabilities = IntegrationCapabilities.get();
+        Class<?> sqlSessionFactoryClass = capabilities.getSqlSessionFactoryClass();
+        Class<?> configurationClass = capabilities.getMyBatisConfigurationClass();
+        Class<?> xmlMapperBuilderClass = capabilities.getXmlMapperBuilderClass();
+        if (Objects.isNull(sqlSessionFactoryClass)
+            || Objects.isNull(configurationClass)
+            || Objects.isNull(xmlMapperBuilderClass)) {
+            return;
+        }
+        try {
+            Object sqlSessionFactory = beanFactory.getBean(sqlSessionFactoryClass);
+            Object configuration = sqlSessionFactoryClass.getMethod("getConfiguration").invoke(sqlSessionFactory);
+            Method isResourceLoaded = configurationClass.getMethod("isResourceLoaded", String.class);
+            Method getSqlFragments = configurationClass.getMethod("getSqlFragments");
+            Constructor<?> xmlMapperBuilderConstructor =
+                xmlMapperBuilderClass.getConstructor(InputStream.class, configurationClass, String.class, Map.class);
+            synchronized (configuration) {
+                Set<String> namespaceSet = new LinkedHashSet<>();
+                if (!collectMapperNamespaces(mapperInterface.getName(), namespaceSet, new HashSet<>())) {
+                    // 引用了未索引的命名空间，无法确定依赖的xml，解析全部xml
+                    LOG.debug("mapper xml引用了未索引的命名空间，解析全部xml，mapper：{}", mapperInterface.getName());
+                    namespaceSet.addAll(MAPPER_XML_INDEX.keySet());
+                }
+                for (String namespace : namespaceSet) {
+                    // MapperFactoryBean初始化时可能已按接口位置解析过同一命名空间的xml
+                    if ((Boolean)isResourceLoaded.invoke(configuration, "namespace:" + namespace)) {
+                        continue;
+                    }
+                    for (Resource resource : MAPPER_XML_INDEX.get(namespace)) {
+                        // 与SqlSessionFactoryBean保持一致，以resource.toString()作为资源标识
+                        String resourceName = resource.toString();
+                        if ((Boolean)isResourceLoaded.invoke(configuration, resourceName)) {
+                            continue;
+                        }
+                        try (InputStream inputStream = resource.getInputStream()) {
+                            Object xmlMapperBuilder = xmlMapperBuilderConstructor.newInstance(inputStream,
+                                configuration,
+                                resourceName,
+                                getSqlFragments.invoke(configuration)
+                            );
+                            xmlMapperBuilderClass.getMethod("parse").invoke(xmlMapperBuilder);
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("load mapper xml failed:" + mapperInterface.getName(), e);
+        }
+    }
+
+    /**
+     * mapper未被扫描到基础上下文时，注册MapperFactoryBean
+     *
+     * @param myBatisContext MyBatis基础上下文
+     * @param name           beanName
+     * @param targetClass    mapper接口
+     */
+    private static void registerMapperIfAbsent(AnnotationConfigApplicationContext myBatisContext,
+                                               String name,
+                                               Class<?> targetClass) {
+
+        Class<?> mapperFactoryBeanClass = IntegrationCapabilities.get().getMapperFactoryBeanClass();
+        if (Objects.isNull(mapperFactoryBeanClass)) {
+            return;
+        }
+        synchronized (myBatisContext) {
+            if (myBatisContext.getBeanNamesForType(targetClass).length > 0) {
+                return;
+            }
+            String beanName = StringUtils.hasText(name) && !myBatisContext.containsBeanDefinition(name)
+                ? name
+                : targetClass.getName();
+            RootBeanDefinition mapperDefinition = new RootBeanDefinition(mapperFactoryBeanClass);
+            mapperDefinition.getConstructorArgumentValues().addGenericArgumentValue(targetClass);
+            mapperDefinition.setAutowireMode(AbstractBeanDefinition.AUTOWIRE_BY_TYPE);
+            myBatisContext.registerBeanDefinition(beanName, mapperDefinition);
+        }
     }
 
     /**
@@ -96,24 +497,26 @@ public class MyBatisContextLoader implements TestContextLoader {
      *
      * @param context 上下文
      */
-    private void addSeataConfig(AnnotationConfigApplicationContext context) {
+    private static void addSeataConfig(AnnotationConfigApplicationContext context) {
 
-        Class<?> globalTransactionScanner =
-            TestClassUtil.tryGetClass("io.seata.spring.annotation.GlobalTransactionScanner");
+        Class<?> globalTransactionScanner = IntegrationCapabilities.get().getSeataGlobalTransactionScannerClass();
         if (Objects.isNull(globalTransactionScanner)) {
             return;
         }
 
-        List<String> environmentPostProcessorList =
-            SpringFactoriesLoader.loadFactoryNames(EnvironmentPostProcessor.class, getClass().getClassLoader());
-        SpringApplication springApplication = new SpringApplication(FastDynamicBeanLoadingTest.TEST_MAIN_RUN_CLASS);
-        for (String environmentPostProcessorName : environmentPostProcessorList) {
-            Class<?> factoryImplementationClass = TestClassUtil.tryGetClass(environmentPostProcessorName);
-            Object instance = TestClassUtil.tryInstance(factoryImplementationClass);
-            if (Objects.isNull(instance)) {
-                continue;
+        MutablePropertySources propertySources = context.getEnvironment().getPropertySources();
+        for (PropertySourceChange change : getSeataPropertySourceChanges()) {
+            PropertySource<?> propertySource = change.propertySource;
+            if (propertySources.contains(propertySource.getName())) {
+                propertySources.replace(propertySource.getName(), propertySource);
+            } else if (Objects.nonNull(change.nextName) && propertySources.contains(change.nextName)) {
+                propertySources.addBefore(change.nextName, propertySource);
+            } else {
+                propertySources.addLast(propertySource);
             }
-            ((EnvironmentPostProcessor)instance).postProcessEnvironment(context.getEnvironment(), springApplication);
+        }
+        if (TestClassUtil.isArrayNotEmpty(SEATA_ACTIVE_PROFILES)) {
+            context.getEnvironment().setActiveProfiles(SEATA_ACTIVE_PROFILES);
         }
 
         List<Class<?>> classDependencyConfigurationList =
@@ -125,6 +528,70 @@ public class MyBatisContextLoader implements TestContextLoader {
         }
     }
 
+    /**
+     * 获取EnvironmentPostProcessor添加或替换的属性源，JVM内只处理一次
+     * 处理的环境以全局属性源为初始内容，只记录处理器改动的属性源及其相对位置
+     *
+     * @return 属性源改动
+     */
+    private static List<PropertySourceChange> getSeataPropertySourceChanges() {
+
+        if (Objects.nonNull(SEATA_PROPERTY_SOURCE_CHANGES)) {
+            return SEATA_PROPERTY_SOURCE_CHANGES;
+        }
+        synchronized (MyBatisContextLoader.class) {
+            if (Objects.nonNull(SEATA_PROPERTY_SOURCE_CHANGES)) {
+                return SEATA_PROPERTY_SOURCE_CHANGES;
+            }
+            ConfigurableEnvironment allEnvironment = FastDynamicBeanLoadingTest.ALL_CONTEXT.getEnvironment();
+            StandardEnvironment seataEnvironment = new StandardEnvironment();
+            MutablePropertySources seataPropertySources = seataEnvironment.getPropertySources();
+            for (String defaultName : new String[] {StandardEnvironment.SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME,
+                StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME}) {
+                seataPropertySources.remove(defaultName);
+            }
+            Map<String, PropertySource<?>> initialPropertySourceMap = new HashMap<>(16);
+            for (PropertySource<?> propertySource : allEnvironment.getPropertySources()) {
+                seataPropertySources.addLast(propertySource);
+                initialPropertySourceMap.put(propertySource.getName(), propertySource);
+            }
+            seataEnvironment.setActiveProfiles(allEnvironment.getActiveProfiles());
+            String[] initialActiveProfiles = seataEnvironment.getActiveProfiles();
+            List<String> environmentPostProcessorList =
+                SpringFactoriesLoader.loadFactoryNames(EnvironmentPostProcessor.class,
+                    MyBatisContextLoader.class.getClassLoader()
+                );
+            SpringApplication springApplication =
+                new SpringApplication(FastDynamicBeanLoadingTest.TEST_MAIN_RUN_CLASS);
+            for (String environmentPostProcessorName : environmentPostProcessorList) {
+                Class<?> factoryImplementationClass = TestClassUtil.tryGetClass(environmentPostProcessorName);
+                Object instance = TestClassUtil.tryInstance(factoryImplementationClass);
+                if (Objects.isNull(instance)) {
+                    continue;
+                }
+                ((EnvironmentPostProcessor)instance).postProcessEnvironment(seataEnvironment, springApplication);
+            }
+            List<PropertySource<?>> processedPropertySources = new ArrayList<>();
+            seataPropertySources.forEach(processedPropertySources::add);
+            List<PropertySourceChange> changes = new ArrayList<>();
+            for (int i = 0; i < processedPropertySources.size(); i++) {
+                PropertySource<?> propertySource = processedPropertySources.get(i);
+                if (initialPropertySourceMap.get(propertySource.getName()) == propertySource) {
+                    continue;
+                }
+                String nextName = i + 1 < processedPropertySources.size()
+                    ? processedPropertySources.get(i + 1).getName()
+                    : null;
+                changes.add(new PropertySourceChange(propertySource, nextName));
+            }
+            if (!Arrays.equals(initialActiveProfiles, seataEnvironment.getActiveProfiles())) {
+                SEATA_ACTIVE_PROFILES = seataEnvironment.getActiveProfiles();
+            }
+            SEATA_PROPERTY_SOURCE_CHANGES = changes;
+            return changes;
+        }
+    }
+
     /**
      * 添加mapper扫描配置
      *
@@ -134,8 +601,8 @@ public class MyBatisContextLoader implements TestContextLoader {
     public static void addMapperScannerConfig(Class<?> configurationClass, Method mapperScannerConfigMethod) {
 
         try {
-            Class<? extends Annotation> mapperScanClass =
-                TestClassUtil.tryGetAnnotation("org.mybatis.spring.annotation.MapperScan");
+            IntegrationCapabilities capabilities = IntegrationCapabilities.get();
+            Class<? extends Annotation> mapperScanClass = capabilities.getMapperScanAnnotation();
             if (Objects.nonNull(mapperScanClass)) {
                 Annotation mapperScan = configurationClass.getAnnotation(mapperScanClass);
                 if (Objects.nonNull(mapperScan)) {
@@ -143,19 +610,18 @@ public class MyBatisContextLoader implements TestContextLoader {
                     Method method = annotationType.getDeclaredMethod("basePackages");
                     String[] value = (String[])method.invoke(mapperScan);
                     if (TestClassUtil.isArrayNotEmpty(value)) {
-                        MAPPER_PACKAGE_SET.addAll(Arrays.asList(value));
+                        addMapperPackage(Arrays.asList(value));
                     }
                 }
             }
-            Class<?> mapperScannerConfigurerClass =
-                TestClassUtil.tryGetClass("org.mybatis.spring.mapper.MapperScannerConfigurer");
+            Class<?> mapperScannerConfigurerClass = capabilities.getMapperScannerConfigurerClass();
             if (Objects.nonNull(mapperScannerConfigurerClass) && mapperScannerConfigMethod.getReturnType()
                 .equals(mapperScannerConfigurerClass)) {
                 Object instance = configurationClass.newInstance();
                 Object invoke = mapperScannerConfigMethod.invoke(instance);
                 Field basePackageField = mapperScannerConfigurerClass.getDeclaredField("basePackage");
                 basePackageField.setAccessible(true);
-                MAPPER_PACKAGE_SET.add((String)basePackageField.get(invoke));
+                addMapperPackage(Collections.singletonList((String)basePackageField.get(invoke)));
             }
         } catch (Throwable ignore) {
         }
@@ -171,9 +637,11 @@ public class MyBatisContextLoader implements TestContextLoader {
     public static boolean isGetBaseMapperMethod(Class<?> configClass, String methodName) {
 
         String baseMapperMethodName = "getBaseMapper";
-        return configClass.isInterface() && TestClassUtil.hasInterface(configClass,
-            "com.baomidou.mybatisplus.extension.service.impl.ServiceImpl"
-        ) && methodName.equals(baseMapperMethodName);
+        Class<?> serviceImplClass = IntegrationCapabilities.get().getMyBatisPlusServiceImplClass();
+        return configClass.isInterface()
+            && Objects.nonNull(serviceImplClass)
+            && ClassUtils.isAssignable(serviceImplClass, configClass)
+            && methodName.equals(baseMapperMethodName);
     }
 
     /**
@@ -186,9 +654,12 @@ public class MyBatisContextLoader implements TestContextLoader {
     public static Class<?> getBaseMapperRawFiled(Class<?> rootClass, Field field) {
 
         String baseMapperFiledName = "baseMapper";
-        if (TestClassUtil.hasInterface(rootClass, "com.baomidou.mybatisplus.extension.service.impl.ServiceImpl")
+        IntegrationCapabilities capabilities = IntegrationCapabilities.get();
+        Class<?> serviceImplClass = capabilities.getMyBatisPlusServiceImplClass();
+        if (Objects.nonNull(serviceImplClass)
+            && ClassUtils.isAssignable(serviceImplClass, rootClass)
             && field.getName().equals(baseMapperFiledName)
-            && field.getType().equals(TestClassUtil.tryGetClass("com.baomidou.mybatisplus.core.mapper.BaseMapper"))) {
+            && field.getType().equals(capabilities.getMyBatisPlusBaseMapperClass())) {
             Type genericSuperclass = rootClass.getGenericSuperclass();
             genericSuperclass = Objects.requireNonNull(TestClassUtil.tryGetClass(genericSuperclass.getTypeName()))
                 .getGenericSuperclass();
@@ -197,4 +668,169 @@ public class MyBatisContextLoader implements TestContextLoader {
         return null;
     }
 
+    /**
+     * mapper包匹配器，无通配符的包精确匹配，含通配符的包预编译为正则，
+     * 与AntPathMatcher匹配不含"/"的包名时语义一致
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    static class MapperPackageMatcher {
+
+        /**
+         * 精确匹配的包
+         */
+        private final Set<String> exactPackageSet = Sets.newHashSet();
+
+        /**
+         * 通配符匹配的包
+         */
+        private final List<Pattern> patternList = new ArrayList<>();
+
+        /**
+         * 构造器
+         *
+         * @param mapperPackages mapper包
+         */
+        MapperPackageMatcher(Collection<String> mapperPackages) {
+
+            for (String mapperPackage : mapperPackages) {
+                if (Objects.isNull(mapperPackage)) {
+                    continue;
+                }
+                if (mapperPackage.indexOf('*') < 0 && mapperPackage.indexOf('?') < 0) {
+                    exactPackageSet.add(mapperPackage);
+                    continue;
+                }
+                patternList.add(compile(mapperPackage));
+            }
+        }
+
+        /**
+         * 编译通配符
+         *
+         * @param mapperPackage mapper包
+         * @return 正则
+         */
+        private static Pattern compile(String mapperPackage) {
+
+            StringBuilder regex = new StringBuilder();
+            int start = 0;
+            for (int i = 0; i < mapperPackage.length(); i++) {
+                char c = mapperPackage.charAt(i);
+                if (c != '*' && c != '?') {
+                    continue;
+                }
+                if (i > start) {
+                    regex.append(Pattern.quote(mapperPackage.substring(start, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                start = i + 1;
+            }
+            if (start < mapperPackage.length()) {
+                regex.append(Pattern.quote(mapperPackage.substring(start)));
+            }
+            return Pattern.compile(regex.toString());
+        }
+
+        /**
+         * 是否匹配
+         *
+         * @param packageName 包名
+         * @return 是否匹配
+         */
+        boolean match(String packageName) {
+
+            if (exactPackageSet.contains(packageName)) {
+                return true;
+            }
+            for (Pattern pattern : patternList) {
+                if (pattern.matcher(packageName).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+    /**
+     * mapper xml延迟解析处理器，mapper代理对象首次创建时解析对应xml
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    private static class LazyMapperXmlProcessor implements BeanPostProcessor {
+
+        /**
+         * bean工厂
+         */
+        private final BeanFactory beanFactory;
+
+        /**
+         * 构造器
+         *
+         * @param beanFactory bean工厂
+         */
+        LazyMapperXmlProcessor(BeanFactory beanFactory) {
+
+            this.beanFactory = beanFactory;
+        }
+
+        /**
+         * 解析mapper对应的xml
+         *
+         * @param bean     bean
+         * @param beanName bean名称
+         * @return bean
+         * @throws BeansException 失败时抛出
+         */
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+
+            if (!Proxy.isProxyClass(bean.getClass())) {
+                return bean;
+            }
+            String handlerClassName = Proxy.getInvocationHandler(bean).getClass().getName();
+            Class<?>[] interfaces = bean.getClass().getInterfaces();
+            if (MAPPER_PROXY_CLASS_NAME_SET.contains(handlerClassName) && TestClassUtil.isArrayNotEmpty(interfaces)) {
+                loadMapperXml(beanFactory, interfaces[0]);
+            }
+            return bean;
+        }
+
+    }
+
+    /**
+     * EnvironmentPostProcessor添加或替换的属性源
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
+     */
+    private static class PropertySourceChange {
+
+        /**
+         * 属性源
+         */
+        private final PropertySource<?> propertySource;
+
+        /**
+         * 其后的属性源名称，位于末尾时为null
+         */
+        private final String nextName;
+
+        /**
+         * 构造器
+         *
+         * @param propertySource 属性源
+         * @param nextName       其后的属性源名称
+         */
+        PropertySourceChange(PropertySource<?> propertySource, String nextName) {
+
+            this.propertySource = propertySource;
+            this.nextName = nextName;
+        }
+
+    }
+
 }
@@ -1,22 +1,42 @@
 package io.github.atom.test.loader;
 
-import com.alibaba.cloud.nacos.NacosConfigManager;
 import com.alibaba.cloud.nacos.NacosConfigProperties;
-import com.alibaba.cloud.nacos.client.NacosPropertySourceLocator;
+import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
+import com.alibaba.cloud.nacos.client.NacosPropertySource;
+import com.alibaba.cloud.nacos.parser.NacosDataParserHandler;
+import com.alibaba.nacos.api.NacosFactory;
+import com.alibaba.nacos.api.config.ConfigService;
+import com.google.common.collect.Lists;
+import io.github.atom.test.utils.IntegrationCapabilities;
 import io.github.atom.test.utils.TestClassUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.properties.bind.Bindable;
 import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.CompositePropertySource;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.PropertySource;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Nacos上下文装载器
+ * Nacos上下文装载器，每个环境对应一个装载句柄，相同nacos配置的加载结果在JVM内共享
  *
  * @author Zhang Kangkang
  * @version 1.0
@@ -24,63 +44,557 @@ import java.util.concurrent.Executors;
 public class NacosContextLoader {
 
     /**
-     * nacos加载线程
+     * 日志记录对象
      */
-    private static final ExecutorService NACOS_LOAD_POOL = Executors.newFixedThreadPool(1);
+    private static final Logger LOG = LoggerFactory.getLogger(NacosContextLoader.class);
 
     /**
-     * nacos加载标识
+     * nacos属性源名称
      */
-    private static final CountDownLatch NACOS_CONFIG_LOAD_COUNT_DOWN = new CountDownLatch(1);
+    private static final String NACOS_PROPERTY_SOURCE_NAME = "NACOS";
 
     /**
-     * 读取nacos配置信息
+     * nacos加载线程，空闲时回收，不阻止JVM退出
+     */
+    private static final ThreadPoolExecutor NACOS_LOAD_POOL = newLoadPool();
+
+    /**
+     * nacos属性源缓存（nacos配置标识为key）
+     */
+    private static final Map<String, CompletableFuture<PropertySource<?>>> NACOS_PROPERTY_SOURCE_CACHE =
+        new ConcurrentHashMap<>(16);
+
+    /**
+     * nacos配置服务缓存（serverAddr + namespace + 认证信息为key）
+     */
+    private static final Map<String, ConfigService> NACOS_CONFIG_SERVICE_CACHE = new ConcurrentHashMap<>(16);
+
+    /**
+     * 是否已注册关闭配置服务的JVM关闭钩子
+     */
+    private static final AtomicBoolean SHUTDOWN_HOOK_REGISTERED = new AtomicBoolean();
+
+    /**
+     * 重新装载完成时的回调，用于清空依赖全局属性的缓存
+     */
+    private static final List<Runnable> RELOAD_LISTENER_LIST = new CopyOnWriteArrayList<>();
+
+    /**
+     * 当前测试环境的装载句柄
+     */
+    private static volatile NacosContextLoader CURRENT_LOADER = new NacosContextLoader(null);
+
+    /**
+     * 环境上下文
+     */
+    private final AnnotationConfigApplicationContext context;
+
+    /**
+     * 加载结果
+     */
+    private volatile CompletableFuture<PropertySource<?>> loadFuture =
+        CompletableFuture.completedFuture(new CompositePropertySource(NACOS_PROPERTY_SOURCE_NAME));
+
+    /**
+     * 构造器
+     *
+     * @param context 上下文
+     */
+    private NacosContextLoader(AnnotationConfigApplicationContext context) {
+
+        this.context = context;
+    }
+
+    /**
+     * 获取环境的装载句柄
+     *
+     * @param context 上下文
+     * @return 装载句柄
+     */
+    public static NacosContextLoader of(AnnotationConfigApplicationContext context) {
+
+        return new NacosContextLoader(context);
+    }
+
+    /**
+     * 读取nacos配置信息，并设为当前测试环境的装载句柄
      *
      * @param context 上下文
      */
     public static void read(AnnotationConfigApplicationContext context) {
-        Class<?> nacosConfigPropertiesClass = TestClassUtil.tryGetClass("com.alibaba.cloud.nacos.NacosConfigProperties");
-        if (Objects.isNull(nacosConfigPropertiesClass)) {
+        if (!IntegrationCapabilities.get().isNacosPresent()) {
+            loaded();
             return;
         }
-        NACOS_LOAD_POOL.execute(() -> {
+        NacosContextLoader loader = of(context);
+        loader.load();
+        CURRENT_LOADER = loader;
+    }
+
+    /**
+     * 等待当前测试环境加载
+     */
+    public static void await() {
+
+        CURRENT_LOADER.join();
+    }
+
+    /**
+     * 当前测试环境无需加载nacos
+     */
+    public static void loaded() {
+
+        CURRENT_LOADER = new NacosContextLoader(null);
+    }
+
+    /**
+     * 添加重新装载完成时的回调，回调在新属性源生效后、重新装载结果返回前执行
+     *
+     * @param listener 回调
+     */
+    public static void addReloadListener(Runnable listener) {
+
+        if (!RELOAD_LISTENER_LIST.contains(listener)) {
+            RELOAD_LISTENER_LIST.add(listener);
+        }
+    }
+
+    /**
+     * 关闭所有配置服务并清空缓存，首次创建配置服务时注册为JVM关闭钩子
+     */
+    public static void shutdown() {
+
+        NACOS_PROPERTY_SOURCE_CACHE.clear();
+        for (ConfigService configService : NACOS_CONFIG_SERVICE_CACHE.values()) {
             try {
-                Class<?> refreshAuto = TestClassUtil.tryGetClass("org.springframework.cloud.autoconfigure.RefreshAutoConfiguration");
-                if (Objects.nonNull(refreshAuto)) {
-                    context.register(refreshAuto);
+                configService.shutDown();
+            } catch (Exception e) {
+                LOG.error("Failed to shutdown nacos config service", e);
+            }
+        }
+        NACOS_CONFIG_SERVICE_CACHE.clear();
+    }
+
+    /**
+     * 加载nacos配置，相同配置标识直接复用缓存结果
+     *
+     * @return 加载结果
+     */
+    public CompletableFuture<PropertySource<?>> load() {
+
+        return load(false);
+    }
+
+    /**
+     * 重新从nacos拉取配置，并替换环境中的nacos属性源
+     *
+     * @return 加载结果
+     */
+    public CompletableFuture<PropertySource<?>> reload() {
+
+        return load(true);
+    }
+
+    /**
+     * 等待加载完成
+     *
+     * @return nacos属性源
+     */
+    public PropertySource<?> join() {
+
+        try {
+            return loadFuture.join();
+        } catch (Exception e) {
+            throw new RuntimeException("nacos load failed", e);
+        }
+    }
+
+    /**
+     * 加载nacos配置
+     *
+     * @param reload 是否忽略缓存重新拉取
+     * @return 加载结果
+     */
+    private synchronized CompletableFuture<PropertySource<?>> load(boolean reload) {
+
+        Class<?> refreshAuto = IntegrationCapabilities.get().getRefreshAutoConfigurationClass();
+        if (Objects.nonNull(refreshAuto) && !reload) {
+            context.register(refreshAuto);
+        }
+        ConfigurableEnvironment environment = context.getEnvironment();
+        loadFuture = CompletableFuture.supplyAsync(() -> bindNacosConfig(environment), NACOS_LOAD_POOL)
+            .thenCompose(nacosConfig -> getOrLocate(nacosConfig, environment, reload))
+            .handle((propertySource, e) -> {
+                if (Objects.nonNull(e)) {
+                    LOG.error("Failed to load nacos config", e);
+                    return new CompositePropertySource(NACOS_PROPERTY_SOURCE_NAME);
+                }
+                synchronized (environment) {
+                    if (environment.getPropertySources().contains(NACOS_PROPERTY_SOURCE_NAME)) {
+                        environment.getPropertySources().replace(NACOS_PROPERTY_SOURCE_NAME, propertySource);
+                    } else {
+                        environment.getPropertySources().addFirst(propertySource);
+                    }
+                }
+                if (reload) {
+                    RELOAD_LISTENER_LIST.forEach(Runnable::run);
                 }
-                Binder binder = Binder.get(context.getEnvironment());
-                NacosConfigProperties nacosConfig = new NacosConfigProperties();
-                binder.bind(NacosConfigProperties.PREFIX, Bindable.ofInstance(nacosConfig));
-                NacosConfigManager nacosConfigManager = new NacosConfigManager(nacosConfig);
-                NacosPropertySourceLocator bean = new NacosPropertySourceLocator(nacosConfigManager);
-                PropertySource<?> locate = bean.locate(context.getEnvironment());
-                ConfigurableEnvironment environment = context.getEnvironment();
-                environment.getPropertySources().addFirst(locate);
-            } finally {
-                loaded();
+                return propertySource;
+            });
+        return loadFuture;
+    }
+
+    /**
+     * 绑定nacos配置
+     *
+     * @param environment 环境
+     * @return nacos配置
+     */
+    private static NacosConfigProperties bindNacosConfig(ConfigurableEnvironment environment) {
+
+        Binder binder = Binder.get(environment);
+        NacosConfigProperties nacosConfig = new NacosConfigProperties();
+        binder.bind(NacosConfigProperties.PREFIX, Bindable.ofInstance(nacosConfig));
+        nacosConfig.setEnvironment(environment);
+        return nacosConfig;
+    }
+
+    /**
+     * 获取缓存的nacos属性源，不存在时拉取
+     *
+     * @param nacosConfig nacos配置
+     * @param environment 环境
+     * @param reload      是否忽略缓存重新拉取
+     * @return nacos属性源
+     */
+    private static CompletableFuture<PropertySource<?>> getOrLocate(NacosConfigProperties nacosConfig,
+                                                                    ConfigurableEnvironment environment,
+                                                                    boolean reload) {
+
+        List<NacosDataId> dataIdList = getDataIdList(nacosConfig, environment);
+        String cacheKey = getCacheKey(nacosConfig, dataIdList);
+        if (reload) {
+            NACOS_PROPERTY_SOURCE_CACHE.remove(cacheKey);
+        }
+        CompletableFuture<PropertySource<?>> future = NACOS_PROPERTY_SOURCE_CACHE.computeIfAbsent(cacheKey,
+            key -> CompletableFuture.supplyAsync(() -> getConfigService(nacosConfig), NACOS_LOAD_POOL)
+                .thenCompose(configService -> locate(configService, nacosConfig, dataIdList))
+        );
+        future.whenComplete((propertySource, e) -> {
+            if (Objects.nonNull(e)) {
+                NACOS_PROPERTY_SOURCE_CACHE.remove(cacheKey, future);
             }
         });
+        return future;
     }
 
     /**
-     * 等待加载
+     * 获取配置服务，相同serverAddr、namespace及认证信息复用同一实例
+     *
+     * @param nacosConfig nacos配置
+     * @return 配置服务
      */
-    public static void await() {
+    private static ConfigService getConfigService(NacosConfigProperties nacosConfig) {
+
+        return NACOS_CONFIG_SERVICE_CACHE.computeIfAbsent(getServiceKey(nacosConfig), key -> {
+            if (SHUTDOWN_HOOK_REGISTERED.compareAndSet(false, true)) {
+                Runtime.getRuntime()
+                    .addShutdownHook(new Thread(NacosContextLoader::shutdown, "nacos-context-loader-shutdown"));
+            }
+            try {
+                return NacosFactory.createConfigService(nacosConfig.assembleConfigServiceProperties());
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to create nacos config service:"
+                    + nacosConfig.getServerAddr() + "@" + nacosConfig.getNamespace(), e);
+            }
+        });
+    }
+
+    /**
+     * 获取配置服务标识，认证信息取摘要，不在标识中保留明文
+     *
+     * @param nacosConfig nacos配置
+     * @return 配置服务标识
+     */
+    private static String getServiceKey(NacosConfigProperties nacosConfig) {
+
+        String credentials = String.join("\n",
+            String.valueOf(nacosConfig.getEndpoint()),
+            String.valueOf(nacosConfig.getUsername()),
+            String.valueOf(nacosConfig.getPassword()),
+            String.valueOf(nacosConfig.getAccessKey()),
+            String.valueOf(nacosConfig.getSecretKey()),
+            String.valueOf(nacosConfig.getRamRoleName())
+        );
+        return nacosConfig.getServerAddr() + "@" + nacosConfig.getNamespace() + "#"
+            + DigestUtils.md5DigestAsHex(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 获取nacos配置标识
+     *
+     * @param nacosConfig nacos配置
+     * @param dataIdList  dataId列表
+     * @return nacos配置标识
+     */
+    private static String getCacheKey(NacosConfigProperties nacosConfig, List<NacosDataId> dataIdList) {
+
+        StringBuilder cacheKey = new StringBuilder(getServiceKey(nacosConfig));
+        for (NacosDataId nacosDataId : dataIdList) {
+            cacheKey.append('|')
+                .append(nacosDataId.getGroup())
+                .append(':')
+                .append(nacosDataId.getDataId())
+                .append('.')
+                .append(nacosDataId.getFileExtension());
+        }
+        return cacheKey.toString();
+    }
+
+    /**
+     * 并行拉取所有dataId，并按NacosPropertySourceLocator的优先级组装属性源
+     *
+     * @param configService 配置服务
+     * @param nacosConfig   nacos配置
+     * @param dataIdList    dataId列表（优先级从低到高）
+     * @return nacos属性源
+     */
+    private static CompletableFuture<PropertySource<?>> locate(ConfigService configService,
+                                                               NacosConfigProperties nacosConfig,
+                                                               List<NacosDataId> dataIdList) {
+
+        List<CompletableFuture<NacosPropertySource>> futureList = Lists.newArrayList();
+        for (NacosDataId nacosDataId : dataIdList) {
+            futureList.add(CompletableFuture.supplyAsync(
+                () -> loadNacosPropertySource(configService, nacosDataId, nacosConfig.getTimeout()),
+                NACOS_LOAD_POOL
+            ));
+        }
+        CompletableFuture<?>[] futures = futureList.toArray(new CompletableFuture<?>[0]);
+        return CompletableFuture.allOf(futures).thenApply(ignore -> {
+            CompositePropertySource composite = new CompositePropertySource(NACOS_PROPERTY_SOURCE_NAME);
+            for (CompletableFuture<NacosPropertySource> future : futureList) {
+                NacosPropertySource propertySource = future.join();
+                if (propertySource.getSource().isEmpty()) {
+                    continue;
+                }
+                composite.addFirstPropertySource(propertySource);
+            }
+            return composite;
+        });
+    }
+
+    /**
+     * 创建nacos加载线程池
+     *
+     * @return nacos加载线程池
+     */
+    private static ThreadPoolExecutor newLoadPool() {
+
+        int poolSize = Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor loadPool = new ThreadPoolExecutor(poolSize,
+            poolSize,
+            30,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "nacos-context-loader-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        loadPool.allowCoreThreadTimeOut(true);
+        return loadPool;
+    }
+
+    /**
+     * 获取需要加载的dataId
+     *
+     * @param nacosConfig nacos配置
+     * @param environment 环境
+     * @return dataId列表（优先级从低到高）
+     */
+    private static List<NacosDataId> getDataIdList(NacosConfigProperties nacosConfig,
+                                                   ConfigurableEnvironment environment) {
+
+        List<NacosDataId> dataIdList = Lists.newArrayList();
+        addConfigDataId(dataIdList, nacosConfig.getSharedConfigs());
+        addConfigDataId(dataIdList, nacosConfig.getExtensionConfigs());
 
+        String dataIdPrefix = nacosConfig.getPrefix();
+        if (!StringUtils.hasText(dataIdPrefix)) {
+            dataIdPrefix = nacosConfig.getName();
+        }
+        if (!StringUtils.hasText(dataIdPrefix)) {
+            dataIdPrefix = environment.getProperty("spring.application.name");
+        }
+        if (!StringUtils.hasText(dataIdPrefix)) {
+            return dataIdList;
+        }
+        String fileExtension = nacosConfig.getFileExtension();
+        String group = nacosConfig.getGroup();
+        boolean refreshEnabled = nacosConfig.isRefreshEnabled();
+        addDataId(dataIdList, new NacosDataId(dataIdPrefix, group, fileExtension, refreshEnabled));
+        addDataId(dataIdList,
+            new NacosDataId(dataIdPrefix + "." + fileExtension, group, fileExtension, refreshEnabled)
+        );
+        for (String profile : environment.getActiveProfiles()) {
+            String dataId = dataIdPrefix + "-" + profile + "." + fileExtension;
+            addDataId(dataIdList, new NacosDataId(dataId, group, fileExtension, refreshEnabled));
+        }
+        return dataIdList;
+    }
+
+    /**
+     * 添加shared/extension配置的dataId
+     *
+     * @param dataIdList dataId列表
+     * @param configList 配置
+     */
+    private static void addConfigDataId(List<NacosDataId> dataIdList, List<NacosConfigProperties.Config> configList) {
+
+        if (TestClassUtil.isCollectionEmpty(configList)) {
+            return;
+        }
+        for (NacosConfigProperties.Config config : configList) {
+            String fileExtension = NacosDataParserHandler.getInstance().getFileExtension(config.getDataId());
+            addDataId(dataIdList,
+                new NacosDataId(config.getDataId(), config.getGroup(), fileExtension, config.isRefresh())
+            );
+        }
+    }
+
+    /**
+     * 添加dataId，忽略dataId或group为空的配置
+     *
+     * @param dataIdList  dataId列表
+     * @param nacosDataId dataId
+     */
+    private static void addDataId(List<NacosDataId> dataIdList, NacosDataId nacosDataId) {
+
+        if (!StringUtils.hasText(nacosDataId.getDataId()) || !StringUtils.hasText(nacosDataId.getGroup())) {
+            return;
+        }
+        dataIdList.add(nacosDataId);
+    }
+
+    /**
+     * 加载单个dataId
+     *
+     * @param configService 配置服务
+     * @param nacosDataId   dataId
+     * @param timeout       超时时间
+     * @return nacos属性源
+     */
+    private static NacosPropertySource loadNacosPropertySource(ConfigService configService,
+                                                               NacosDataId nacosDataId,
+                                                               long timeout) {
+
+        List<PropertySource<?>> propertySourceList = Collections.emptyList();
         try {
-            NACOS_CONFIG_LOAD_COUNT_DOWN.await();
+            String data = configService.getConfig(nacosDataId.getDataId(), nacosDataId.getGroup(), timeout);
+            if (StringUtils.hasText(data)) {
+                propertySourceList = NacosDataParserHandler.getInstance()
+                    .parseNacosData(nacosDataId.getDataId(), data, nacosDataId.getFileExtension());
+            }
         } catch (Exception e) {
-            throw new RuntimeException("nacos load failed", e);
+            LOG.error("Failed to load nacos config, dataId:" + nacosDataId.getDataId(), e);
         }
+        NacosPropertySource propertySource = new NacosPropertySource(propertySourceList,
+            nacosDataId.getGroup(),
+            nacosDataId.getDataId(),
+            new Date(),
+            nacosDataId.isRefreshable()
+        );
+        NacosPropertySourceRepository.collectNacosPropertySource(propertySource);
+        return propertySource;
     }
 
     /**
-     * 加载完成
+     * nacos dataId信息
+     *
+     * @author Zhang Kangkang
+     * @version 1.0
      */
-    public static void loaded() {
+    static class NacosDataId {
+
+        /**
+         * dataId
+         */
+        private final String dataId;
+
+        /**
+         * 分组
+         */
+        private final String group;
+
+        /**
+         * 文件后缀
+         */
+        private final String fileExtension;
+
+        /**
+         * 是否可刷新
+         */
+        private final boolean refreshable;
+
+        /**
+         * 构造器
+         *
+         * @param dataId        dataId
+         * @param group         分组
+         * @param fileExtension 文件后缀
+         * @param refreshable   是否可刷新
+         */
+        NacosDataId(String dataId, String group, String fileExtension, boolean refreshable) {
+
+            this.dataId = dataId;
+            this.group = group;
+            this.fileExtension = fileExtension;
+            this.refreshable = refreshable;
+        }
+
+        /**
+         * 获取dataId
+         *
+         * @return dataId
+         */
+        public String getDataId() {
+
+            return dataId;
+        }
+
+        /**
+         * 获取分组
+         *
+         * @return 分组
+         */
+        public String getGroup() {
+
+            return group;
+        }
+
+        /**
+         * 获取文件后缀
+         *
+         * @return 文件后缀
+         */
+        public String getFileExtension() {
+
+            return fileExtension;
+        }
+
+        /**
+         * 是否可刷新
+         *
+         * @return 是否可刷新
+         */
+        public boolean isRefreshable() {
+
+            return refreshable;
+        }
 
-        NACOS_CONFIG_LOAD_COUNT_DOWN.countDown();
     }
 
 }
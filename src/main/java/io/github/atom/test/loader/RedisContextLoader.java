@@ -0,0 +1,228 @@
+package io.github.atom.test.loader;
+
+import io.github.atom.test.FastDynamicBeanLoadingTest;
+import io.github.atom.test.utils.TestClassUtil;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Redis上下文装载器，RedisTemplate等bean共享同一个连接工厂
+ *
+ * @author Zhang Kangkang
+ * @version 1.0
+ */
+public class RedisContextLoader implements TestContextLoader {
+
+    /**
+     * Redis连接工厂类，不存在spring-data-redis时为空
+     */
+    private static final Class<?> REDIS_CONNECTION_FACTORY_CLASS =
+        TestClassUtil.tryGetClass("org.springframework.data.redis.connection.RedisConnectionFactory");
+
+    /**
+     * Redis操作类，不存在spring-data-redis时为空
+     */
+    private static final Class<?> REDIS_OPERATIONS_CLASS =
+        TestClassUtil.tryGetClass("org.springframework.data.redis.core.RedisOperations");
+
+    /**
+     * 进程内Redis替身属性源名称
+     */
+    private static final String EMBEDDED_REDIS_PROPERTY_SOURCE_NAME = "embeddedRedis";
+
+    /**
+     * 共享的Redis基础上下文，连接工厂只在首次获取Redis bean时创建
+     */
+    private static volatile AnnotationConfigApplicationContext REDIS_CONTEXT;
+
+    /**
+     * 进程内Redis替身
+     */
+    private static volatile EmbeddedRedisServer EMBEDDED_REDIS_SERVER;
+
+    /**
+     * 是否使用进程内Redis替身
+     */
+    private static volatile boolean EMBEDDED_REDIS = false;
+
+    /**
+     * 判断能否处理bean
+     *
+     * @param context     上下文
+     * @param name        beanName
+     * @param targetClass beanClass
+     * @param annotations bean依赖注解
+     * @return 能否处理依赖
+     */
+    @Override
+    public boolean canHandle(AnnotationConfigApplicationContext context,
+                             String name,
+                             Class<?> targetClass,
+                             Class<?>[] annotations) {
+
+        return isRedisClass(REDIS_OPERATIONS_CLASS, targetClass)
+            || isRedisClass(REDIS_CONNECTION_FACTORY_CLASS, targetClass);
+    }
+
+    /**
+     * 是否为Redis类
+     *
+     * @param redisClass  Redis类
+     * @param targetClass beanClass
+     * @return 是否为Redis类
+     */
+    private static boolean isRedisClass(Class<?> redisClass, Class<?> targetClass) {
+
+        return Objects.nonNull(redisClass) && redisClass.isAssignableFrom(targetClass);
+    }
+
+    /**
+     * 获取bean，共享上下文中不存在时以共享上下文为父上下文创建
+     *
+     * @param context     上下文
+     * @param name        beanName
+     * @param targetClass beanClass
+     * @param annotations bean依赖注解
+     * @return bean
+     */
+    @Override
+    public Object getOrCreate(AnnotationConfigApplicationContext context,
+                              String name,
+                              Class<?> targetClass,
+                              Class<?>[] annotations) {
+
+        AnnotationConfigApplicationContext redisContext = getRedisContext(context, name, targetClass);
+        if (containsBean(redisContext, name, targetClass)) {
+            return FastDynamicBeanLoadingTest.cacheAndGet(redisContext, name, targetClass);
+        }
+        context.setParent(redisContext);
+        registerDependencyConfiguration(context, name, targetClass);
+        FastDynamicBeanLoadingTest.refreshContext(context);
+        return FastDynamicBeanLoadingTest.cacheAndGet(context, name, targetClass);
+    }
+
+    /**
+     * 获取共享的Redis基础上下文
+     *
+     * @param context     上下文
+     * @param name        beanName
+     * @param targetClass beanClass
+     * @return Redis基础上下文
+     */
+    private static synchronized AnnotationConfigApplicationContext getRedisContext(
+        AnnotationConfigApplicationContext context,
+        String name,
+        Class<?> targetClass) {
+
+        if (Objects.nonNull(REDIS_CONTEXT)) {
+            return REDIS_CONTEXT;
+        }
+        if (EMBEDDED_REDIS) {
+            EmbeddedRedisServer server = getEmbeddedRedisServer();
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource(
+                EMBEDDED_REDIS_PROPERTY_SOURCE_NAME,
+                getEmbeddedRedisProperties(server)
+            ));
+        }
+        registerDependencyConfiguration(context, name, targetClass);
+        registerDependencyConfiguration(context, null, REDIS_CONNECTION_FACTORY_CLASS);
+        FastDynamicBeanLoadingTest.refreshContext(context);
+        REDIS_CONTEXT = context;
+        return context;
+    }
+
+    /**
+     * 注册bean依赖的配置类
+     *
+     * @param context     上下文
+     * @param name        beanName
+     * @param targetClass beanClass
+     */
+    private static void registerDependencyConfiguration(AnnotationConfigApplicationContext context,
+                                                        String name,
+                                                        Class<?> targetClass) {
+
+        Set<Class<?>> dependencyConfigurationSet =
+            FastDynamicBeanLoadingTest.getDependencyConfigurationClasses(name, targetClass);
+        for (Class<?> dependencyConfiguration : dependencyConfigurationSet) {
+            context.register(dependencyConfiguration);
+        }
+    }
+
+    /**
+     * 上下文中是否存在bean
+     *
+     * @param context     上下文
+     * @param name        beanName
+     * @param targetClass beanClass
+     * @return 是否存在bean
+     */
+    private static boolean containsBean(AnnotationConfigApplicationContext context, String name, Class<?> targetClass) {
+
+        if (StringUtils.hasText(name) && context.containsBean(name)) {
+            return context.isTypeMatch(name, targetClass);
+        }
+        return context.getBeanNamesForType(targetClass).length == 1;
+    }
+
+    /**
+     * 设置是否使用进程内Redis替身
+     *
+     * @param embeddedRedis 是否使用进程内Redis替身
+     */
+    public static void setEmbeddedRedis(boolean embeddedRedis) {
+
+        EMBEDDED_REDIS = embeddedRedis;
+    }
+
+    /**
+     * 获取进程内Redis替身，首次获取时启动，JVM退出时关闭
+     *
+     * @return 进程内Redis替身
+     */
+    private static EmbeddedRedisServer getEmbeddedRedisServer() {
+
+        if (Objects.nonNull(EMBEDDED_REDIS_SERVER)) {
+            return EMBEDDED_REDIS_SERVER;
+        }
+        synchronized (RedisContextLoader.class) {
+            if (Objects.isNull(EMBEDDED_REDIS_SERVER)) {
+                try {
+                    EmbeddedRedisServer server = new EmbeddedRedisServer();
+                    Runtime.getRuntime().addShutdownHook(new Thread(server::close, "embedded-redis-shutdown"));
+                    EMBEDDED_REDIS_SERVER = server;
+                } catch (IOException e) {
+                    throw new RuntimeException("start embedded redis failed", e);
+                }
+            }
+            return EMBEDDED_REDIS_SERVER;
+        }
+    }
+
+    /**
+     * 获取指向进程内Redis替身的连接属性，覆盖项目配置的地址与认证信息
+     *
+     * @param server 进程内Redis替身
+     * @return 连接属性
+     */
+    private static Map<String, Object> getEmbeddedRedisProperties(EmbeddedRedisServer server) {
+
+        Map<String, Object> properties = new HashMap<>(16);
+        for (String prefix : new String[] {"spring.redis.", "spring.data.redis."}) {
+            properties.put(prefix + "host", server.getHost());
+            properties.put(prefix + "port", server.getPort());
+            properties.put(prefix + "database", 0);
+            properties.put(prefix + "url", "");
+            properties.put(prefix + "username", "");
+            properties.put(prefix + "password", "");
+            properties.put(prefix + "ssl", false);
+            properties.put(prefix + "ssl.enabled", false);
+        }
+        return properties;
+    }
+
+}
@@ -2,6 +2,12 @@ package io.github.atom.test.loader;
 
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
 /**
  * 测试上下文加载器
  *
@@ -32,4 +38,44 @@ public interface TestContextLoader {
      */
     Object getOrCreate(AnnotationConfigApplicationContext context, String name, Class<?> targetClass, Class<?>[] annotations);
 
+    /**
+     * 异步获取bean，默认在指定线程池中执行getOrCreate
+     *
+     * @param context     上下文
+     * @param name        beanName
+     * @param targetClass beanClass
+     * @param annotations bean依赖注解
+     * @param executor    线程池
+     * @return bean
+     */
+    default CompletableFuture<Object> getOrCreateAsync(AnnotationConfigApplicationContext context,
+                                                       String name,
+                                                       Class<?> targetClass,
+                                                       Class<?>[] annotations,
+                                                       Executor executor) {
+
+        return CompletableFuture.supplyAsync(() -> getOrCreate(context, name, targetClass, annotations), executor);
+    }
+
+    /**
+     * 批量获取bean，默认逐个调用getOrCreate，每个请求使用新的上下文
+     *
+     * @param contextSupplier 未刷新的上下文
+     * @param requests        bean获取请求
+     * @return bean，与请求顺序一致
+     */
+    default List<Object> getOrCreateAll(Supplier<AnnotationConfigApplicationContext> contextSupplier,
+                                        List<BeanRequest> requests) {
+
+        List<Object> beans = new ArrayList<>(requests.size());
+        for (BeanRequest request : requests) {
+            beans.add(getOrCreate(contextSupplier.get(),
+                request.getName(),
+                request.getTargetClass(),
+                request.getAnnotations()
+            ));
+        }
+        return beans;
+    }
+
 }
@@ -0,0 +1,388 @@
+package io.github.atom.test.utils;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 可选集成能力，启动时探测一次classpath中存在的框架并持有其注解/类句柄，探测后不可变
+ *
+ * @author Zhang Kangkang
+ * @version 1.0
+ */
+public final class IntegrationCapabilities {
+
+    /**
+     * 当前能力
+     */
+    private static volatile IntegrationCapabilities CURRENT;
+
+    /**
+     * Dubbo（org.apache.dubbo）DubboReference注解
+     */
+    private final Class<? extends Annotation> dubboReferenceAnnotation;
+
+    /**
+     * Dubbo引用注解（org.apache.dubbo与com.alibaba.dubbo）
+     */
+    private final List<Class<? extends Annotation>> dubboReferenceAnnotations;
+
+    /**
+     * Dubbo服务注解（org.apache.dubbo与com.alibaba.dubbo）
+     */
+    private final List<Class<? extends Annotation>> dubboServiceAnnotations;
+
+    /**
+     * 是否存在com.alibaba.dubbo
+     */
+    private final boolean alibabaDubboPresent;
+
+    /**
+     * MyBatis SqlSessionFactory类
+     */
+    private final Class<?> sqlSessionFactoryClass;
+
+    /**
+     * MyBatis Configuration类
+     */
+    private final Class<?> myBatisConfigurationClass;
+
+    /**
+     * MyBatis XMLMapperBuilder类
+     */
+    private final Class<?> xmlMapperBuilderClass;
+
+    /**
+     * MyBatis-Spring MapperFactoryBean类
+     */
+    private final Class<?> mapperFactoryBeanClass;
+
+    /**
+     * MyBatis-Spring MapperScannerConfigurer类
+     */
+    private final Class<?> mapperScannerConfigurerClass;
+
+    /**
+     * MyBatis-Spring MapperScan注解
+     */
+    private final Class<? extends Annotation> mapperScanAnnotation;
+
+    /**
+     * MyBatis-Plus MybatisConfiguration类
+     */
+    private final Class<?> myBatisPlusConfigurationClass;
+
+    /**
+     * MyBatis-Plus ServiceImpl类
+     */
+    private final Class<?> myBatisPlusServiceImplClass;
+
+    /**
+     * MyBatis-Plus BaseMapper类
+     */
+    private final Class<?> myBatisPlusBaseMapperClass;
+
+    /**
+     * Seata GlobalTransactionScanner类
+     */
+    private final Class<?> seataGlobalTransactionScannerClass;
+
+    /**
+     * Nacos NacosConfigProperties类
+     */
+    private final Class<?> nacosConfigPropertiesClass;
+
+    /**
+     * Spring Cloud RefreshAutoConfiguration类
+     */
+    private final Class<?> refreshAutoConfigurationClass;
+
+    /**
+     * 构造器，探测classpath
+     */
+    private IntegrationCapabilities() {
+
+        this.dubboReferenceAnnotation =
+            TestClassUtil.tryGetAnnotation("org.apache.dubbo.config.annotation.DubboReference");
+        this.dubboReferenceAnnotations = presentAnnotations(dubboReferenceAnnotation,
+            TestClassUtil.tryGetAnnotation("org.apache.dubbo.config.annotation.Reference"),
+            TestClassUtil.tryGetAnnotation("com.alibaba.dubbo.config.annotation.Reference")
+        );
+        this.dubboServiceAnnotations = presentAnnotations(
+            TestClassUtil.tryGetAnnotation("org.apache.dubbo.config.annotation.DubboService"),
+            TestClassUtil.tryGetAnnotation("org.apache.dubbo.config.annotation.Service"),
+            TestClassUtil.tryGetAnnotation("com.alibaba.dubbo.config.annotation.Service")
+        );
+        this.alibabaDubboPresent =
+            Objects.nonNull(TestClassUtil.tryGetClass("com.alibaba.dubbo.config.annotation.Reference"));
+        this.sqlSessionFactoryClass = TestClassUtil.tryGetClass("org.apache.ibatis.session.SqlSessionFactory");
+        this.myBatisConfigurationClass = TestClassUtil.tryGetClass("org.apache.ibatis.session.Configuration");
+        this.xmlMapperBuilderClass = TestClassUtil.tryGetClass("org.apache.ibatis.builder.xml.XMLMapperBuilder");
+        this.mapperFactoryBeanClass = TestClassUtil.tryGetClass("org.mybatis.spring.mapper.MapperFactoryBean");
+        this.mapperScannerConfigurerClass =
+            TestClassUtil.tryGetClass("org.mybatis.spring.mapper.MapperScannerConfigurer");
+        this.mapperScanAnnotation = TestClassUtil.tryGetAnnotation("org.mybatis.spring.annotation.MapperScan");
+        this.myBatisPlusConfigurationClass =
+            TestClassUtil.tryGetClass("com.baomidou.mybatisplus.core.MybatisConfiguration");
+        this.myBatisPlusServiceImplClass =
+            TestClassUtil.tryGetClass("com.baomidou.mybatisplus.extension.service.impl.ServiceImpl");
+        this.myBatisPlusBaseMapperClass = TestClassUtil.tryGetClass("com.baomidou.mybatisplus.core.mapper.BaseMapper");
+        this.seataGlobalTransactionScannerClass =
+            TestClassUtil.tryGetClass("io.seata.spring.annotation.GlobalTransactionScanner");
+        this.nacosConfigPropertiesClass = TestClassUtil.tryGetClass("com.alibaba.cloud.nacos.NacosConfigProperties");
+        this.refreshAutoConfigurationClass =
+            TestClassUtil.tryGetClass("org.springframework.cloud.autoconfigure.RefreshAutoConfiguration");
+    }
+
+    /**
+     * 探测classpath并设为当前能力
+     *
+     * @return 当前能力
+     */
+    public static IntegrationCapabilities detect() {
+
+        IntegrationCapabilities capabilities = new IntegrationCapabilities();
+        CURRENT = capabilities;
+        return capabilities;
+    }
+
+    /**
+     * 获取当前能力，未探测时先探测
+     *
+     * @return 当前能力
+     */
+    public static IntegrationCapabilities get() {
+
+        IntegrationCapabilities capabilities = CURRENT;
+        if (Objects.isNull(capabilities)) {
+            synchronized (IntegrationCapabilities.class) {
+                capabilities = CURRENT;
+                if (Objects.isNull(capabilities)) {
+                    capabilities = detect();
+                }
+            }
+        }
+        return capabilities;
+    }
+
+    /**
+     * 过滤不存在的注解
+     *
+     * @param annotations 注解
+     * @return 存在的注解
+     */
+    @SafeVarargs
+    private static List<Class<? extends Annotation>> presentAnnotations(Class<? extends Annotation>... annotations) {
+
+        List<Class<? extends Annotation>> presentAnnotations = new ArrayList<>(annotations.length);
+        for (Class<? extends Annotation> annotation : annotations) {
+            if (Objects.nonNull(annotation)) {
+                presentAnnotations.add(annotation);
+            }
+        }
+        return Collections.unmodifiableList(presentAnnotations);
+    }
+
+    /**
+     * 是否存在org.apache.dubbo
+     *
+     * @return 是否存在org.apache.dubbo
+     */
+    public boolean isDubboPresent() {
+
+        return Objects.nonNull(dubboReferenceAnnotation);
+    }
+
+    /**
+     * 是否存在com.alibaba.dubbo
+     *
+     * @return 是否存在com.alibaba.dubbo
+     */
+    public boolean isAlibabaDubboPresent() {
+
+        return alibabaDubboPresent;
+    }
+
+    /**
+     * 是否存在MyBatis
+     *
+     * @return 是否存在MyBatis
+     */
+    public boolean isMyBatisPresent() {
+
+        return Objects.nonNull(sqlSessionFactoryClass);
+    }
+
+    /**
+     * 是否存在MyBatis-Plus
+     *
+     * @return 是否存在MyBatis-Plus
+     */
+    public boolean isMyBatisPlusPresent() {
+
+        return Objects.nonNull(myBatisPlusConfigurationClass);
+    }
+
+    /**
+     * 是否存在Seata
+     *
+     * @return 是否存在Seata
+     */
+    public boolean isSeataPresent() {
+
+        return Objects.nonNull(seataGlobalTransactionScannerClass);
+    }
+
+    /**
+     * 是否存在Nacos配置中心
+     *
+     * @return 是否存在Nacos配置中心
+     */
+    public boolean isNacosPresent() {
+
+        return Objects.nonNull(nacosConfigPropertiesClass);
+    }
+
+    /**
+     * 是否存在Spring Cloud刷新
+     *
+     * @return 是否存在Spring Cloud刷新
+     */
+    public boolean isRefreshPresent() {
+
+        return Objects.nonNull(refreshAutoConfigurationClass);
+    }
+
+    /**
+     * 获取DubboReference注解
+     *
+     * @return DubboReference注解，不存在时返回null
+     */
+    public Class<? extends Annotation> getDubboReferenceAnnotation() {
+
+        return dubboReferenceAnnotation;
+    }
+
+    /**
+     * 获取Dubbo引用注解
+     *
+     * @return Dubbo引用注解
+     */
+    public List<Class<? extends Annotation>> getDubboReferenceAnnotations() {
+
+        return dubboReferenceAnnotations;
+    }
+
+    /**
+     * 获取Dubbo服务注解
+     *
+     * @return Dubbo服务注解
+     */
+    public List<Class<? extends Annotation>> getDubboServiceAnnotations() {
+
+        return dubboServiceAnnotations;
+    }
+
+    /**
+     * 获取SqlSessionFactory类
+     *
+     * @return SqlSessionFactory类，不存在时返回null
+     */
+    public Class<?> getSqlSessionFactoryClass() {
+
+        return sqlSessionFactoryClass;
+    }
+
+    /**
+     * 获取MyBatis Configuration类
+     *
+     * @return MyBatis Configuration类，不存在时返回null
+     */
+    public Class<?> getMyBatisConfigurationClass() {
+
+        return myBatisConfigurationClass;
+    }
+
+    /**
+     * 获取XMLMapperBuilder类
+     *
+     * @return XMLMapperBuilder类，不存在时返回null
+     */
+    public Class<?> getXmlMapperBuilderClass() {
+
+        return xmlMapperBuilderClass;
+    }
+
+    /**
+     * 获取MapperFactoryBean类
+     *
+     * @return MapperFactoryBean类，不存在时返回null
+     */
+    public Class<?> getMapperFactoryBeanClass() {
+
+        return mapperFactoryBeanClass;
+    }
+
+    /**
+     * 获取MapperScannerConfigurer类
+     *
+     * @return MapperScannerConfigurer类，不存在时返回null
+     */
+    public Class<?> getMapperScannerConfigurerClass() {
+
+        return mapperScannerConfigurerClass;
+    }
+
+    /**
+     * 获取MapperScan注解
+     *
+     * @return MapperScan注解，不存在时返回null
+     */
+    public Class<? extends Annotation> getMapperScanAnnotation() {
+
+        return mapperScanAnnotation;
+    }
+
+    /**
+     * 获取MyBatis-Plus ServiceImpl类
+     *
+     * @return MyBatis-Plus ServiceImpl类，不存在时返回null
+     */
+    public Class<?> getMyBatisPlusServiceImplClass() {
+
+        return myBatisPlusServiceImplClass;
+    }
+
+    /**
+     * 获取MyBatis-Plus BaseMapper类
+     *
+     * @return MyBatis-Plus BaseMapper类，不存在时返回null
+     */
+    public Class<?> getMyBatisPlusBaseMapperClass() {
+
+        return myBatisPlusBaseMapperClass;
+    }
+
+    /**
+     * 获取Seata GlobalTransactionScanner类
+     *
+     * @return Seata GlobalTransactionScanner类，不存在时返回null
+     */
+    public Class<?> getSeataGlobalTransactionScannerClass() {
+
+        return seataGlobalTransactionScannerClass;
+    }
+
+    /**
+     * 获取Spring Cloud RefreshAutoConfiguration类
+     *
+     * @return Spring Cloud RefreshAutoConfiguration类，不存在时返回null
+     */
+    public Class<?> getRefreshAutoConfigurationClass() {
+
+        return refreshAutoConfigurationClass;
+    }
+
+}
@@ -1,14 +1,18 @@
 package io.github.atom.test.utils;
 
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 测试类工具
@@ -35,6 +39,12 @@ public final class TestClassUtil {
         add(String.class);
     }};
 
+    /**
+     * class缓存（类加载器为key，内存不足时自动清除）
+     */
+    private static final Map<ClassLoader, Map<String, Optional<Class<?>>>> CLASS_CACHE =
+        new ConcurrentReferenceHashMap<>(4, ConcurrentReferenceHashMap.ReferenceType.SOFT);
+
     /**
      * 测试类构造器
      */
@@ -67,8 +77,42 @@ public final class TestClassUtil {
      */
     public static Class<?> tryGetClass(String className) {
 
+        return tryGetClass(className, TestClassUtil.class.getClassLoader());
+    }
+
+    /**
+     * 根据class名称从指定类加载器加载class，加载结果（包括不存在）按类加载器缓存
+     *
+     * @param className   class名称
+     * @param classLoader 类加载器
+     * @return class
+     */
+    public static Class<?> tryGetClass(String className, ClassLoader classLoader) {
+
+        if (Objects.isNull(className)) {
+            return null;
+        }
+        Map<String, Optional<Class<?>>> classCache =
+            CLASS_CACHE.computeIfAbsent(classLoader, key -> new ConcurrentHashMap<>(64));
+        Optional<Class<?>> clazz = classCache.get(className);
+        if (Objects.isNull(clazz)) {
+            clazz = Optional.ofNullable(loadClass(className, classLoader));
+            classCache.putIfAbsent(className, clazz);
+        }
+        return clazz.orElse(null);
+    }
+
+    /**
+     * 加载class
+     *
+     * @param className   class名称
+     * @param classLoader 类加载器
+     * @return class，不存在时返回null
+     */
+    private static Class<?> loadClass(String className, ClassLoader classLoader) {
+
         try {
-            return Class.forName(className);
+            return Class.forName(className, true, classLoader);
         } catch (Throwable e) {
             return null;
         }